@@ -10,12 +10,14 @@ public class SearchResult {
     private List<Suggestion> completions;
     private List<SearchResultItem> indexResults;
     private List<RankedProduct> rankedResults;
+    private Map<String, Map<String, Integer>> facetCounts;
     private long searchTime;
 
     public SearchResult() {
         this.spellingSuggestions = new ArrayList<>();
         this.completions = new ArrayList<>();
         this.rankedResults = new ArrayList<>();
+        this.facetCounts = new LinkedHashMap<>();
         this.searchTime = System.currentTimeMillis();
     }
 
@@ -35,10 +37,15 @@ public class SearchResult {
         this.rankedResults = rankedResults;
     }
 
+    public void setFacetCounts(Map<String, Map<String, Integer>> facetCounts) {
+        this.facetCounts = facetCounts;
+    }
+
     // Getters
     public List<String> getSpellingSuggestions() { return spellingSuggestions; }
     public List<Suggestion> getCompletions() { return completions; }
     public List<SearchResultItem> getIndexResults() { return indexResults; }
     public List<RankedProduct> getRankedResults() { return rankedResults; }
+    public Map<String, Map<String, Integer>> getFacetCounts() { return facetCounts; }
     public long getSearchTime() { return System.currentTimeMillis() - searchTime; }
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.searchengine.core.catalog;
+
+import com.searchengine.model.Product;
+import java.util.*;
+
+// Immutable product catalog shared by every panel and component; doc id = list position
+public class Catalog {
+    private final List<Product> products;
+
+    public Catalog(List<Product> products) {
+        this.products = List.copyOf(products);
+    }
+
+    // Catalog over a mapped product store; products are materialized as they are read
+    public Catalog(ProductStore store) {
+        this.products = store.asList();
+    }
+
+    public static Catalog empty() {
+        return new Catalog(Collections.emptyList());
+    }
+
+    public List<Product> getProducts() { return products; }
+    public Product get(int docId) { return products.get(docId); }
+    public int size() { return products.size(); }
+    public boolean isEmpty() { return products.isEmpty(); }
+}
@@ -0,0 +1,159 @@
+package com.searchengine.core.catalog;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.searchengine.core.indexing.FacetIndex;
+import com.searchengine.model.Product;
+import com.searchengine.model.ProductDictionaries;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+// Streams the {"company": {name: {"products": [...]}}} catalog straight into Product objects
+public class CatalogLoader {
+    public static final String DEFAULT_CATALOG_PATH = "ACC-Project/audio_products.json";
+    public static final String DEFAULT_NDJSON_PATH = "ACC-Project/audio_products.ndjson";
+
+    public Catalog load(String path) throws IOException {
+        return load(Paths.get(path));
+    }
+
+    public Catalog load(Path path) throws IOException {
+        // Off-heap store, mapped rather than parsed
+        if (ProductStore.isProductStore(path)) {
+            return new Catalog(ProductStore.open(path));
+        }
+
+        // One product per line can be split and parsed on all cores
+        if (NdjsonCatalogLoader.isNdjson(path)) {
+            return new NdjsonCatalogLoader().load(path);
+        }
+
+        long start = System.currentTimeMillis();
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            Catalog catalog = parse(reader);
+            System.out.println("Loaded " + catalog.size() + " products from " + path +
+                    " in " + (System.currentTimeMillis() - start) + " ms");
+            return catalog;
+        }
+    }
+
+    public Catalog parse(Reader source) throws IOException {
+        List<Product> products = new ArrayList<>();
+        ProductDictionaries dictionaries = new ProductDictionaries();
+
+        JsonReader reader = new JsonReader(source);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (!reader.nextName().equals("company")) {
+                reader.skipValue();
+                continue;
+            }
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String company = reader.nextName();
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    if (!reader.nextName().equals("products")) {
+                        reader.skipValue();
+                        continue;
+                    }
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        Product product = readProduct(reader, company, dictionaries);
+                        if (product.getProductId() == null) {
+                            product.setProductId(productId(product.getCategory(), products.size() + 1));
+                        }
+                        products.add(product);
+                    }
+                    reader.endArray();
+                }
+                reader.endObject();
+            }
+            reader.endObject();
+        }
+        reader.endObject();
+
+        return new Catalog(products);
+    }
+
+    // One product object; the company name becomes the category unless the product names its own.
+    // Products of one catalog share dictionaries.
+    static Product readProduct(JsonReader reader, String company, ProductDictionaries dictionaries) throws IOException {
+        Product product = new Product(dictionaries);
+        product.setCategory(company);
+
+        List<String> audioTechnology = new ArrayList<>();
+        List<String> connectivity = new ArrayList<>();
+        String speakerConfiguration = null;
+        String powerOutput = null;
+        String type = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String field = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                continue;
+            }
+            switch (field) {
+                case "id":
+                    product.setProductId(reader.nextString());
+                    break;
+                case "company":
+                    product.setCategory(reader.nextString());
+                    break;
+                case "name":
+                    product.setName(reader.nextString());
+                    break;
+                case "price":
+                    product.setPrice(reader.nextDouble());
+                    break;
+                case "speakerConfiguration":
+                    speakerConfiguration = reader.nextString();
+                    break;
+                case "powerOutput":
+                    powerOutput = reader.nextString();
+                    break;
+                case "type":
+                    type = reader.nextString();
+                    break;
+                case "audioTechnology":
+                    readStrings(reader, audioTechnology);
+                    break;
+                case "connectivity":
+                    readStrings(reader, connectivity);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        // Same layout the panels always used: technologies, then prefixed connectivity options
+        audioTechnology.forEach(product::addFeature);
+        connectivity.forEach(conn -> product.addFeature(FacetIndex.CONNECTIVITY_PREFIX + conn));
+
+        if (speakerConfiguration != null) product.addSpecification("Speaker Configuration", speakerConfiguration);
+        if (powerOutput != null) product.addSpecification("Power Output", powerOutput);
+        if (type != null) product.addSpecification("Type", type);
+
+        return product;
+    }
+
+    private static void readStrings(JsonReader reader, List<String> values) throws IOException {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            values.add(reader.nextString());
+        }
+        reader.endArray();
+    }
+
+    // COMPANY-n, the format DataValidator expects
+    static String productId(String company, int sequence) {
+        return company.toUpperCase().replaceAll("[^A-Z0-9]", "") + "-" + sequence;
+    }
+}
@@ -0,0 +1,167 @@
+package com.searchengine.core.catalog;
+
+import com.google.gson.stream.JsonReader;
+import com.searchengine.model.Product;
+import com.searchengine.model.ProductDictionaries;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+// Loads a one-product-per-line catalog by splitting the file into line-aligned byte ranges
+// and parsing every range on its own thread from a memory-mapped view of the file
+public class NdjsonCatalogLoader {
+    private static final long MIN_CHUNK_SIZE = 1 << 20;    // Not worth a task below 1 MB
+    private static final long MAX_CHUNK_SIZE = 256L << 20; // Well under the 2 GB mapping limit
+    private static final int SCAN_BUFFER_SIZE = 8192;
+
+    private final int threadCount;
+
+    public NdjsonCatalogLoader() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public NdjsonCatalogLoader(int threadCount) {
+        this.threadCount = Math.max(1, threadCount);
+    }
+
+    public static boolean isNdjson(Path path) {
+        String fileName = path.getFileName().toString().toLowerCase();
+        return fileName.endsWith(".ndjson") || fileName.endsWith(".jsonl");
+    }
+
+    public Catalog load(String path) throws IOException {
+        return load(Paths.get(path));
+    }
+
+    public Catalog load(Path path) throws IOException {
+        long start = System.currentTimeMillis();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long[] boundaries = splitAtLines(channel);
+            int chunkCount = boundaries.length - 1;
+            ProductDictionaries dictionaries = new ProductDictionaries(); // Shared by all chunks
+
+            ExecutorService executor = Executors.newFixedThreadPool(Math.min(threadCount, Math.max(1, chunkCount)));
+            try {
+                List<Future<List<Product>>> chunks = new ArrayList<>();
+                for (int i = 0; i < chunkCount; i++) {
+                    long chunkStart = boundaries[i];
+                    long chunkEnd = boundaries[i + 1];
+                    chunks.add(executor.submit(() -> parseChunk(channel, chunkStart, chunkEnd, dictionaries)));
+                }
+
+                // Collect in file order so doc ids match line order
+                List<Product> products = new ArrayList<>();
+                for (Future<List<Product>> chunk : chunks) {
+                    products.addAll(chunk.get());
+                }
+                assignMissingIds(products);
+
+                System.out.println("Loaded " + products.size() + " products from " + path + " (" +
+                        chunkCount + " chunks) in " + (System.currentTimeMillis() - start) + " ms");
+                return new Catalog(products);
+
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while loading " + path);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) throw (IOException) cause;
+                throw new IOException("Error loading " + path + ": " + cause.getMessage(), cause);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    // Chunk start offsets plus the file size; every offset after the first sits right after a newline
+    private long[] splitAtLines(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long chunkSize = Math.max(MIN_CHUNK_SIZE, size / (threadCount * 4L) + 1);
+        chunkSize = Math.min(chunkSize, MAX_CHUNK_SIZE);
+
+        List<Long> boundaries = new ArrayList<>();
+        boundaries.add(0L);
+        long position = 0;
+        while (position < size) {
+            long next = position + chunkSize >= size ? size : nextLineStart(channel, position + chunkSize, size);
+            if (next - position > Integer.MAX_VALUE) {
+                throw new IOException("Catalog line near offset " + position + " is too long to map");
+            }
+            boundaries.add(next);
+            position = next;
+        }
+
+        return boundaries.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private long nextLineStart(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        long position = from;
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) break;
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') return position + i + 1;
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private List<Product> parseChunk(FileChannel channel, long start, long end,
+                                     ProductDictionaries dictionaries) throws IOException {
+        List<Product> products = new ArrayList<>();
+        if (end <= start) return products;
+
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        byte[] line = new byte[256];
+        int lineNumber = 0;
+
+        while (buffer.hasRemaining()) {
+            int length = 0;
+            while (buffer.hasRemaining()) {
+                byte b = buffer.get();
+                if (b == '\n') break;
+                if (length == line.length) line = Arrays.copyOf(line, length * 2);
+                line[length++] = b;
+            }
+            if (length > 0 && line[length - 1] == '\r') length--;
+            lineNumber++;
+            if (isBlank(line, length)) continue;
+
+            String json = new String(line, 0, length, StandardCharsets.UTF_8);
+            try (JsonReader reader = new JsonReader(new StringReader(json))) {
+                products.add(CatalogLoader.readProduct(reader, null, dictionaries));
+            } catch (IOException | RuntimeException e) {
+                throw new IOException("Malformed catalog line " + lineNumber + " of chunk at offset " +
+                        start + ": " + e.getMessage(), e);
+            }
+        }
+        return products;
+    }
+
+    private static boolean isBlank(byte[] line, int length) {
+        for (int i = 0; i < length; i++) {
+            if (line[i] != ' ' && line[i] != '\t') return false;
+        }
+        return true;
+    }
+
+    // Lines written without an "id" get the same COMPANY-n ids the nested loader assigns
+    private static void assignMissingIds(List<Product> products) {
+        for (int i = 0; i < products.size(); i++) {
+            Product product = products.get(i);
+            if (product.getProductId() == null && product.getCategory() != null) {
+                product.setProductId(CatalogLoader.productId(product.getCategory(), i + 1));
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.searchengine.core.catalog;
+
+import com.google.gson.stream.JsonWriter;
+import com.searchengine.core.indexing.FacetIndex;
+import com.searchengine.model.Product;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+// Writes a catalog as newline-delimited JSON, one product per line with its company inline
+public class NdjsonCatalogWriter {
+    public void write(Catalog catalog, Path path) throws IOException {
+        try (Writer out = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            StringWriter line = new StringWriter();
+            for (Product product : catalog.getProducts()) {
+                line.getBuffer().setLength(0);
+                writeProduct(new JsonWriter(line), product);
+                out.write(line.toString());
+                out.write('\n');
+            }
+        }
+    }
+
+    // Same field names as the nested file, so CatalogLoader.readProduct reads both formats
+    private void writeProduct(JsonWriter writer, Product product) throws IOException {
+        Map<String, String> specs = product.getSpecifications();
+        List<String> audioTechnology = new ArrayList<>();
+        List<String> connectivity = new ArrayList<>();
+        for (String feature : product.getFeatures()) {
+            if (feature.startsWith(FacetIndex.CONNECTIVITY_PREFIX)) {
+                connectivity.add(feature.substring(FacetIndex.CONNECTIVITY_PREFIX.length()));
+            } else {
+                audioTechnology.add(feature);
+            }
+        }
+
+        writer.beginObject();
+        writer.name("id").value(product.getProductId());
+        writer.name("company").value(product.getCategory());
+        writer.name("name").value(product.getName());
+        writer.name("price").value(product.getPrice());
+        writer.name("speakerConfiguration").value(specs.get("Speaker Configuration"));
+        writer.name("powerOutput").value(specs.get("Power Output"));
+        writer.name("type").value(specs.get("Type"));
+        writeStrings(writer.name("audioTechnology"), audioTechnology);
+        writeStrings(writer.name("connectivity"), connectivity);
+        writer.endObject();
+        writer.flush();
+    }
+
+    private void writeStrings(JsonWriter writer, List<String> values) throws IOException {
+        writer.beginArray();
+        for (String value : values) {
+            writer.value(value);
+        }
+        writer.endArray();
+    }
+
+    // Converts the nested audio_products.json into the splittable line format
+    public static void main(String[] args) {
+        String source = args.length > 0 ? args[0] : CatalogLoader.DEFAULT_CATALOG_PATH;
+        String target = args.length > 1 ? args[1] : CatalogLoader.DEFAULT_NDJSON_PATH;
+
+        try {
+            Catalog catalog = new CatalogLoader().load(source);
+            new NdjsonCatalogWriter().write(catalog, Paths.get(target));
+            System.out.println("Wrote " + catalog.size() + " products to " + target);
+        } catch (IOException e) {
+            System.err.println("Error converting catalog: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,406 @@
+package com.searchengine.core.catalog;
+
+import com.searchengine.core.indexing.StoredFields;
+import com.searchengine.model.Product;
+import com.searchengine.model.ProductDictionaries;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+// Off-heap product records in a memory-mapped file. Fixed-width columns (price, rating,
+// review count, stock flag, update time and string references) are followed by a heap of
+// length-prefixed strings and detail blobs. Products are only materialized on get().
+//
+// Layout: header | price double[] | lastUpdated long[] | rating float[] | reviewCount int[] |
+//         flags byte[] | refs long[4] per doc (id, name, category, details) | heap
+public class ProductStore {
+    public static final String DEFAULT_STORE_PATH = "ACC-Project/audio_products.products";
+
+    private static final int MAGIC = 0x41434350; // "ACCP"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int REF_FIELDS = 4;
+    private static final int ID_REF = 0, NAME_REF = 1, CATEGORY_REF = 2, DETAILS_REF = 3;
+    private static final int IN_STOCK = 1;
+
+    // The file is mapped in 1 GB segments; the writer never lets a heap entry cross one
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+    private static final long SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    // Strings up to this length are written to the heap once and shared by reference
+    private static final int MAX_SHARED_LENGTH = 64;
+    private static final int MAX_SHARED_STRINGS = 1 << 20;
+
+    private final ByteBuffer[] segments;
+    private final int docCount;
+    private final long priceOffset;
+    private final long lastUpdatedOffset;
+    private final long ratingOffset;
+    private final long reviewCountOffset;
+    private final long flagsOffset;
+    private final long refsOffset;
+    private final ProductDictionaries dictionaries; // Shared by the products materialized from this store
+
+    private ProductStore(ByteBuffer[] segments, int docCount) {
+        this.segments = segments;
+        this.docCount = docCount;
+        this.priceOffset = HEADER_SIZE;
+        this.lastUpdatedOffset = priceOffset + 8L * docCount;
+        this.ratingOffset = lastUpdatedOffset + 8L * docCount;
+        this.reviewCountOffset = ratingOffset + 4L * docCount;
+        this.flagsOffset = reviewCountOffset + 4L * docCount;
+        this.refsOffset = align(flagsOffset + docCount);
+        this.dictionaries = new ProductDictionaries();
+    }
+
+    private static long align(long position) {
+        return (position + 7) & ~7L;
+    }
+
+    public static boolean isProductStore(Path path) {
+        return path.getFileName().toString().toLowerCase().endsWith(".products");
+    }
+
+    public static ProductStore open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) throw new IOException("Product store is truncated: " + path);
+
+            ByteBuffer[] segments = new ByteBuffer[(int) ((size + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT)];
+            for (int i = 0; i < segments.length; i++) {
+                long start = (long) i << SEGMENT_SHIFT;
+                MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, start,
+                        Math.min(SEGMENT_SIZE, size - start));
+                segments[i] = segment;
+            }
+
+            ByteBuffer header = segments[0];
+            if (header.getInt(0) != MAGIC) throw new IOException("Not a product store: " + path);
+            if (header.getInt(4) != VERSION) throw new IOException("Unsupported product store version: " + path);
+            ProductStore store = new ProductStore(segments, header.getInt(8));
+            if (store.refsOffset + 8L * REF_FIELDS * store.docCount > size) {
+                throw new IOException("Product store is truncated: " + path);
+            }
+            System.out.println("Mapped " + store.docCount + " products from " + path);
+            return store;
+        }
+    }
+
+    public int size() { return docCount; }
+
+    public double getPrice(int docId) { return getDouble(priceOffset + 8L * checkDoc(docId)); }
+    public long getLastUpdated(int docId) { return getLong(lastUpdatedOffset + 8L * checkDoc(docId)); }
+    public float getRating(int docId) { return getFloat(ratingOffset + 4L * checkDoc(docId)); }
+    public int getReviewCount(int docId) { return getInt(reviewCountOffset + 4L * checkDoc(docId)); }
+    public boolean isInStock(int docId) { return (getByte(flagsOffset + checkDoc(docId)) & IN_STOCK) != 0; }
+
+    public String getProductId(int docId) { return readString(ref(docId, ID_REF)); }
+    public String getName(int docId) { return readString(ref(docId, NAME_REF)); }
+    public String getCategory(int docId) { return readString(ref(docId, CATEGORY_REF)); }
+
+    // Materializes a full Product; every call builds a fresh object
+    public Product get(int docId) {
+        Product product = new Product(dictionaries);
+        product.setProductId(getProductId(docId));
+        product.setName(getName(docId));
+        product.setCategory(getCategory(docId));
+        product.setPrice(getPrice(docId));
+        product.setRating(getRating(docId));
+        product.setReviewCount(getReviewCount(docId));
+        product.setInStock(isInStock(docId));
+        product.setLastUpdated(getLastUpdated(docId));
+
+        long details = ref(docId, DETAILS_REF);
+        product.setUrl(readString(getLong(details)));
+        product.setDescription(readString(getLong(details + 8)));
+        product.setCurrency(readString(getLong(details + 16)));
+        long position = details + 24;
+        int featureCount = getInt(position);
+        position += 4;
+        for (int i = 0; i < featureCount; i++, position += 8) {
+            product.addFeature(readString(getLong(position)));
+        }
+        int imageCount = getInt(position);
+        position += 4;
+        for (int i = 0; i < imageCount; i++, position += 8) {
+            product.addImage(readString(getLong(position)));
+        }
+        int specCount = getInt(position);
+        position += 4;
+        for (int i = 0; i < specCount; i++, position += 16) {
+            product.addSpecification(readString(getLong(position)), readString(getLong(position + 8)));
+        }
+        int variantCount = getInt(position);
+        position += 4;
+        for (int i = 0; i < variantCount; i++, position += 16) {
+            product.addVariant(readString(getLong(position)), readString(getLong(position + 8)));
+        }
+        return product;
+    }
+
+    // List view that materializes a product each time an element is read. It doubles as the
+    // index's stored fields, so indexing an off-heap catalog never copies it onto the heap.
+    public List<Product> asList() {
+        return new ProductList();
+    }
+
+    private class ProductList extends AbstractList<Product> implements RandomAccess, StoredFields {
+        @Override
+        public Product get(int index) {
+            return ProductStore.this.get(index);
+        }
+
+        @Override
+        public Product document(int docId) {
+            return ProductStore.this.get(docId);
+        }
+
+        @Override
+        public double price(int docId) {
+            return getPrice(docId);
+        }
+
+        @Override
+        public float rating(int docId) {
+            return getRating(docId);
+        }
+
+        @Override
+        public int reviewCount(int docId) {
+            return getReviewCount(docId);
+        }
+
+        @Override
+        public boolean inStock(int docId) {
+            return isInStock(docId);
+        }
+
+        @Override
+        public int size() {
+            return docCount;
+        }
+    }
+
+    private int checkDoc(int docId) {
+        return Objects.checkIndex(docId, docCount);
+    }
+
+    private long ref(int docId, int field) {
+        return getLong(refsOffset + 8L * (REF_FIELDS * (long) checkDoc(docId) + field));
+    }
+
+    private String readString(long position) {
+        if (position < 0) return null;
+        int length = getInt(position);
+        byte[] bytes = new byte[length];
+        segment(position + 4).get(index(position + 4), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private ByteBuffer segment(long position) { return segments[(int) (position >>> SEGMENT_SHIFT)]; }
+    private int index(long position) { return (int) (position & SEGMENT_MASK); }
+
+    private byte getByte(long position) { return segment(position).get(index(position)); }
+    private int getInt(long position) { return segment(position).getInt(index(position)); }
+    private long getLong(long position) { return segment(position).getLong(index(position)); }
+    private float getFloat(long position) { return segment(position).getFloat(index(position)); }
+    private double getDouble(long position) { return segment(position).getDouble(index(position)); }
+
+    // Writes the products column by column; the list may itself be a lazy view
+    public static void write(List<Product> products, Path path) throws IOException {
+        long start = System.currentTimeMillis();
+        int docCount = products.size();
+        ProductStore layout = new ProductStore(new ByteBuffer[0], docCount); // Column offsets only
+        long heapOffset = layout.refsOffset + 8L * REF_FIELDS * docCount;
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            RegionWriter prices = new RegionWriter(channel, layout.priceOffset);
+            RegionWriter lastUpdated = new RegionWriter(channel, layout.lastUpdatedOffset);
+            RegionWriter ratings = new RegionWriter(channel, layout.ratingOffset);
+            RegionWriter reviewCounts = new RegionWriter(channel, layout.reviewCountOffset);
+            RegionWriter flags = new RegionWriter(channel, layout.flagsOffset);
+            RegionWriter refs = new RegionWriter(channel, layout.refsOffset);
+            HeapWriter heap = new HeapWriter(channel, heapOffset);
+
+            for (Product product : products) {
+                prices.putDouble(product.getPrice());
+                lastUpdated.putLong(product.getLastUpdated());
+                ratings.putFloat((float) product.getRating());
+                reviewCounts.putInt(product.getReviewCount());
+                flags.put((byte) (product.isInStock() ? IN_STOCK : 0));
+                refs.putLong(heap.string(product.getProductId()));
+                refs.putLong(heap.string(product.getName()));
+                refs.putLong(heap.string(product.getCategory()));
+                refs.putLong(heap.details(product));
+            }
+
+            for (RegionWriter region : List.of(prices, lastUpdated, ratings, reviewCounts, flags, refs, heap)) {
+                region.flush();
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putInt(docCount).putInt(0);
+            header.putLong(heapOffset).putLong(heap.position());
+            header.rewind();
+            channel.write(header, 0);
+            channel.force(true);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        System.out.println("Wrote " + docCount + " products to " + path +
+                " in " + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    // Buffered sequential writes to one region of the file
+    private static class RegionWriter {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private long flushed; // File position of the first buffered byte
+
+        RegionWriter(FileChannel channel, long position) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocate(1 << 16);
+            this.flushed = position;
+        }
+
+        long position() { return flushed + buffer.position(); }
+
+        void put(byte value) throws IOException { ensure(1); buffer.put(value); }
+        void putInt(int value) throws IOException { ensure(4); buffer.putInt(value); }
+        void putLong(long value) throws IOException { ensure(8); buffer.putLong(value); }
+        void putFloat(float value) throws IOException { ensure(4); buffer.putFloat(value); }
+        void putDouble(double value) throws IOException { ensure(8); buffer.putDouble(value); }
+
+        void put(byte[] bytes) throws IOException {
+            if (bytes.length > buffer.remaining()) flush();
+            if (bytes.length > buffer.capacity()) {
+                channel.write(ByteBuffer.wrap(bytes), flushed);
+                flushed += bytes.length;
+            } else {
+                buffer.put(bytes);
+            }
+        }
+
+        // Leaves a gap of zeros up to position
+        void skipTo(long position) throws IOException {
+            flush();
+            flushed = position;
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) flush();
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            long position = flushed;
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            flushed = position;
+            buffer.clear();
+        }
+    }
+
+    // String and detail-blob heap; short strings such as companies and features are stored once
+    private static class HeapWriter extends RegionWriter {
+        private final Map<String, Long> shared = new HashMap<>();
+
+        HeapWriter(FileChannel channel, long position) {
+            super(channel, position);
+        }
+
+        long string(String value) throws IOException {
+            if (value == null) return -1;
+            boolean shareable = value.length() <= MAX_SHARED_LENGTH;
+            if (shareable) {
+                Long existing = shared.get(value);
+                if (existing != null) return existing;
+            }
+
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            long position = reserve(4 + bytes.length);
+            putInt(bytes.length);
+            put(bytes);
+            if (shareable && shared.size() < MAX_SHARED_STRINGS) {
+                shared.put(value, position);
+            }
+            return position;
+        }
+
+        long details(Product product) throws IOException {
+            List<Long> refs = new ArrayList<>();
+            refs.add(string(product.getUrl()));
+            refs.add(string(product.getDescription()));
+            refs.add(string(product.getCurrency()));
+            List<long[]> lists = new ArrayList<>();
+            lists.add(strings(product.getFeatures()));
+            lists.add(strings(product.getImages()));
+            lists.add(entries(product.getSpecifications()));
+            lists.add(entries(product.getVariants()));
+
+            int size = 8 * refs.size();
+            for (long[] list : lists) size += 4 + 8 * list.length;
+            long position = reserve(size);
+            for (long ref : refs) putLong(ref);
+            for (int i = 0; i < lists.size(); i++) {
+                long[] list = lists.get(i);
+                // Maps are stored as key/value pairs, so their count is half the refs
+                putInt(i < 2 ? list.length : list.length / 2);
+                for (long ref : list) putLong(ref);
+            }
+            return position;
+        }
+
+        private long[] strings(List<String> values) throws IOException {
+            long[] refs = new long[values.size()];
+            for (int i = 0; i < refs.length; i++) refs[i] = string(values.get(i));
+            return refs;
+        }
+
+        private long[] entries(Map<String, String> map) throws IOException {
+            long[] refs = new long[map.size() * 2];
+            int i = 0;
+            for (Map.Entry<String, String> entry : map.entrySet()) {
+                refs[i++] = string(entry.getKey());
+                refs[i++] = string(entry.getValue());
+            }
+            return refs;
+        }
+
+        // Start of an entry of the given size, moved to the next segment if it would straddle one
+        private long reserve(int size) throws IOException {
+            long position = position();
+            if ((position >>> SEGMENT_SHIFT) != ((position + size - 1) >>> SEGMENT_SHIFT)) {
+                position = ((position >>> SEGMENT_SHIFT) + 1) << SEGMENT_SHIFT;
+                skipTo(position);
+            }
+            return position;
+        }
+    }
+
+    // Converts a JSON or NDJSON catalog into a product store
+    public static void main(String[] args) {
+        String source = args.length > 0 ? args[0] : CatalogLoader.DEFAULT_CATALOG_PATH;
+        String target = args.length > 1 ? args[1] : DEFAULT_STORE_PATH;
+
+        try {
+            Catalog catalog = new CatalogLoader().load(source);
+            write(catalog.getProducts(), Paths.get(target));
+        } catch (IOException e) {
+            System.err.println("Error writing product store: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
@@ -20,6 +20,7 @@ class TrieNode {
     public void setEndOfWord(boolean endOfWord) { isEndOfWord = endOfWord; }
     public int getFrequency() { return frequency; }
     public void incrementFrequency() { this.frequency++; }
+    public void setFrequency(int frequency) { this.frequency = frequency; }
     public Set<String> getProductIds() { return productIds; }
     public void addProductId(String productId) { this.productIds.add(productId); }
 }
\ No newline at end of file
@@ -1,7 +1,11 @@
 package com.searchengine.core.completion;
 
+import com.searchengine.core.snapshot.SnapshotReader;
+import com.searchengine.core.snapshot.SnapshotWriter;
 import com.searchengine.model.Product;
+import java.io.IOException;
 import java.util.*;
+import java.util.function.ToDoubleFunction;
 
 public class WordCompletion {
     private final TrieNode root;
@@ -68,7 +72,53 @@ public class WordCompletion {
         current.incrementFrequency();
     }
 
+    // Nodes in pre-order with their product ids as doc ids
+    public void writeSnapshot(SnapshotWriter out) throws IOException {
+        writeNode(out, root);
+    }
+
+    private void writeNode(SnapshotWriter out, TrieNode node) throws IOException {
+        out.writeBoolean(node.isEndOfWord());
+        out.writeInt(node.getFrequency());
+        out.writeInt(node.getProductIds().size());
+        for (String productId : node.getProductIds()) {
+            out.writeProductRef(productId);
+        }
+        out.writeInt(node.getChildren().size());
+        for (Map.Entry<Character, TrieNode> child : node.getChildren().entrySet()) {
+            out.writeChar(child.getKey());
+            writeNode(out, child.getValue());
+        }
+    }
+
+    public void readSnapshot(SnapshotReader in) {
+        root.getChildren().clear();
+        root.getProductIds().clear();
+        readNode(in, root);
+        System.out.println("Trie restored from snapshot");
+    }
+
+    private void readNode(SnapshotReader in, TrieNode node) {
+        node.setEndOfWord(in.readBoolean());
+        node.setFrequency(in.readInt());
+        int productCount = in.readInt();
+        for (int i = 0; i < productCount; i++) {
+            node.addProductId(in.readProductRef());
+        }
+        int childCount = in.readInt();
+        for (int i = 0; i < childCount; i++) {
+            TrieNode child = new TrieNode();
+            node.getChildren().put(in.readChar(), child);
+            readNode(in, child);
+        }
+    }
+
     public List<Suggestion> getSuggestions(String prefix) {
+        return getSuggestions(prefix, word -> 0);
+    }
+
+    // Words currently being searched (by trendScore) come first, then catalog frequency
+    public List<Suggestion> getSuggestions(String prefix, ToDoubleFunction<String> trendScore) {
         List<Suggestion> suggestions = new ArrayList<>();
 
         // Convert prefix to lowercase
@@ -86,8 +136,13 @@ public class WordCompletion {
         // Find all words with this prefix
         findAllWords(current, prefix, suggestions);
 
-        // Sort suggestions by frequency
-        suggestions.sort((s1, s2) -> Integer.compare(s2.getFrequency(), s1.getFrequency()));
+        // Sort suggestions by trend, then by frequency
+        Map<String, Double> trends = new HashMap<>();
+        for (Suggestion suggestion : suggestions) {
+            trends.put(suggestion.getWord(), trendScore.applyAsDouble(suggestion.getWord()));
+        }
+        suggestions.sort(Comparator.comparingDouble((Suggestion s) -> trends.get(s.getWord())).reversed()
+                .thenComparing(Comparator.comparingInt(Suggestion::getFrequency).reversed()));
 
         // Return top suggestions
         return suggestions.subList(0, Math.min(suggestions.size(), MAX_SUGGESTIONS));
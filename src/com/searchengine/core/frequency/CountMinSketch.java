@@ -0,0 +1,60 @@
+package com.searchengine.core.frequency;
+
+// Count-Min sketch: depth rows of width counters. An estimate never undercounts and, with
+// probability 1 - e^-depth, overcounts by at most e / width of everything added so far.
+class CountMinSketch {
+    private static final long[] SEEDS = {
+            0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L,
+            0xFF51AFD7ED558CCDL, 0xC4CEB9FE1A85EC53L, 0x27D4EB2F165667C5L, 0x94D049BB133111EBL
+    };
+
+    private final int depth;
+    private final int mask;
+    private final long[][] counters;
+    private long total;
+
+    CountMinSketch(int depth, int width) {
+        if (depth < 1 || depth > SEEDS.length) {
+            throw new IllegalArgumentException("Depth must be between 1 and " + SEEDS.length);
+        }
+        int size = Integer.highestOneBit(Math.max(2, width - 1)) << 1;
+        this.depth = depth;
+        this.mask = size - 1;
+        this.counters = new long[depth][size];
+    }
+
+    // Returns the estimate including this occurrence
+    long add(String item) {
+        int hash = item.hashCode();
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int index = index(hash, row);
+            estimate = Math.min(estimate, ++counters[row][index]);
+        }
+        total++;
+        return estimate;
+    }
+
+    long estimate(String item) {
+        int hash = item.hashCode();
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters[row][index(hash, row)]);
+        }
+        return estimate;
+    }
+
+    // Additive error bound of estimate(): e / width times the number of items added
+    long errorBound() {
+        return (long) Math.ceil(Math.E / (mask + 1) * total);
+    }
+
+    long getTotal() {
+        return total;
+    }
+
+    private int index(int hash, int row) {
+        long mixed = (hash ^ SEEDS[row]) * SEEDS[(row + 1) % SEEDS.length];
+        return (int) (mixed ^ (mixed >>> 32)) & mask;
+    }
+}
@@ -1,177 +1,553 @@
 package com.searchengine.core.frequency;
 
+import com.searchengine.core.snapshot.SnapshotReader;
+import com.searchengine.core.snapshot.SnapshotWriter;
 import com.searchengine.model.Product;
+import com.searchengine.model.StringDictionary;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
 
 public class FrequencyAnalyzer {
-    private final Map<String, Map<String, Integer>> wordFrequencies;
-    private final Map<String, Integer> globalWordFrequencies;
-    private final Map<String, SearchTerm> searchHistory;
-    private final Map<String, ProductFrequency> productFrequencies;
+    private static final Pattern NON_WORD = Pattern.compile("[^a-z0-9\\s-]");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final int SEARCH_RING_CAPACITY = 1 << 14;
+    private static final int SEARCH_BATCH_SIZE = 256;
+    private static final int MAX_TRACKED_SEARCHES = 10_000;
+    private static final int SKETCH_DEPTH = 4;          // Estimates hold with probability 1 - e^-4
+    private static final int SKETCH_WIDTH = 1 << 14;    // Within e / 16384 of all searches
+    private static final long AGGREGATOR_IDLE_NANOS = 50_000_000;  // Longest park; a new search wakes it sooner
+    private static final long AGGREGATOR_CHECK_MILLIS = 100;       // How often a waiting caller checks it is alive
+    private static final long AGGREGATOR_STOP_MILLIS = 5_000;
+    private static final int MAX_TRENDING_SEARCHES = 2_000;
+    private static final Duration[] TREND_WINDOWS = {
+            Duration.ofHours(1), Duration.ofDays(1), Duration.ofDays(7)
+    };
+    private static final Duration COMPLETION_TREND_WINDOW = Duration.ofDays(1);
+    private static final long GROUP_COMMIT_MILLIS = 50;
+
+    private volatile Analysis analysis;
+    private final HeavyHitters searchHistory; // Written only by the aggregator thread
+    private final SearchEventRing searchEvents;
+    private final TrendingSearches[] trending;          // One per TREND_WINDOWS entry
+    private final Queue<Runnable> aggregatorTasks;      // Run on the aggregator thread between batches
+    private SearchEventLog searchLog;                   // Aggregator thread only; null when not logging
+    private final Thread aggregator;
+    private volatile boolean aggregatorIdle;            // Parked or about to park; searches unpark it
+    private volatile boolean stopped;
 
     public FrequencyAnalyzer() {
-        this.wordFrequencies = new ConcurrentHashMap<>();
-        this.globalWordFrequencies = new ConcurrentHashMap<>();
-        this.searchHistory = new ConcurrentHashMap<>();
-        this.productFrequencies = new ConcurrentHashMap<>();
+        this.analysis = new Analysis(new StringDictionary(), new RankedTermCounts(new int[0]));
+        this.searchHistory = new HeavyHitters(MAX_TRACKED_SEARCHES,
+                new CountMinSketch(SKETCH_DEPTH, SKETCH_WIDTH));
+        this.searchEvents = new SearchEventRing(SEARCH_RING_CAPACITY);
+        this.trending = new TrendingSearches[TREND_WINDOWS.length];
+        for (int i = 0; i < TREND_WINDOWS.length; i++) {
+            trending[i] = new TrendingSearches(TREND_WINDOWS[i].toMillis(), MAX_TRENDING_SEARCHES);
+        }
+
+        this.aggregatorTasks = new ConcurrentLinkedQueue<>();
+
+        this.aggregator = new Thread(this::aggregateSearches, "search-log-aggregator");
+        aggregator.setDaemon(true);
+        aggregator.start();
     }
 
-    public void analyzeProducts(List<Product> products) {
+    // Replaces the word statistics with those of the given catalog. Products are tokenized in
+    // parallel into sorted (term id, count) arrays, summed into global counts and ranked once.
+    public synchronized void analyzeProducts(List<Product> products) {
         System.out.println("Analyzing product frequencies...");
         if (products == null) {
             System.out.println("No products to analyze");
             return;
         }
 
-        products.stream()
-                .filter(Objects::nonNull)
-                .forEach(this::analyzeProduct);
+        StringDictionary terms = new StringDictionary();
+        List<ProductFrequency> frequencies = analyze(products, terms);
+
+        AtomicIntegerArray counts = new AtomicIntegerArray(terms.size());
+        frequencies.parallelStream().forEach(frequency -> {
+            int[] ids = frequency.getTermIds();
+            int[] wordCounts = frequency.getCounts();
+            for (int i = 0; i < ids.length; i++) {
+                counts.addAndGet(ids[i], wordCounts[i]);
+            }
+        });
+        int[] termCounts = new int[counts.length()];
+        Arrays.setAll(termCounts, counts::get);
+
+        Analysis built = new Analysis(terms, new RankedTermCounts(termCounts));
+        for (ProductFrequency frequency : frequencies) {
+            built.byProduct.put(frequency.getProductId(), frequency);
+        }
+        analysis = built;
 
         System.out.println("Analysis completed:");
-        System.out.println("- Total unique words: " + globalWordFrequencies.size());
-        System.out.println("- Total products analyzed: " + productFrequencies.size());
+        System.out.println("- Total unique words: " + terms.size());
+        System.out.println("- Total products analyzed: " + built.byProduct.size());
     }
 
-    private void analyzeProduct(Product product) {
-        try {
-            if (product == null || product.getProductId() == null) {
-                return;
+    // Adds products to the current statistics; a product id seen before replaces its old counts.
+    // Global counts and the top words ranking are updated in place rather than rebuilt.
+    public synchronized void addProducts(List<Product> products) {
+        if (products == null || products.isEmpty()) {
+            return;
+        }
+
+        Analysis current = analysis;
+        List<ProductFrequency> frequencies = analyze(products, current.terms);
+        synchronized (current) {
+            for (ProductFrequency frequency : frequencies) {
+                ProductFrequency previous = current.byProduct.put(frequency.getProductId(), frequency);
+                if (previous != null) {
+                    current.subtract(previous);
+                }
+                current.add(frequency);
             }
+        }
+    }
 
-            ProductFrequency freq = new ProductFrequency(product.getProductId());
+    public synchronized void removeProduct(String productId) {
+        if (productId == null) {
+            return;
+        }
 
-            // Analyze name
-            if (product.getName() != null) {
-                analyzeText(product.getName(), product.getProductId(), freq);
+        Analysis current = analysis;
+        synchronized (current) {
+            ProductFrequency previous = current.byProduct.remove(productId);
+            if (previous != null) {
+                current.subtract(previous);
             }
+        }
+    }
 
-            // Analyze features
-            if (product.getFeatures() != null) {
-                product.getFeatures().stream()
-                        .filter(Objects::nonNull)
-                        .forEach(feature -> analyzeText(feature, product.getProductId(), freq));
+    private List<ProductFrequency> analyze(List<Product> products, StringDictionary terms) {
+        ProductFrequency[] byDoc = new ProductFrequency[products.size()];
+        IntStream.range(0, byDoc.length).parallel().forEach(docId -> {
+            try {
+                byDoc[docId] = analyzeProduct(products.get(docId), terms);
+            } catch (Exception e) {
+                System.err.println("Error analyzing product: " + e.getMessage());
             }
+        });
+
+        List<ProductFrequency> frequencies = new ArrayList<>(byDoc.length);
+        for (ProductFrequency frequency : byDoc) {
+            if (frequency != null) frequencies.add(frequency);
+        }
+        return frequencies;
+    }
+
+    private ProductFrequency analyzeProduct(Product product, StringDictionary terms) {
+        if (product == null || product.getProductId() == null) {
+            return null;
+        }
+
+        TermBuffer buffer = new TermBuffer();
+        buffer.addText(product.getName(), terms);
+        for (String feature : product.getFeatures()) {
+            buffer.addText(feature, terms);
+        }
+        buffer.addText(product.getDescription(), terms);
+        for (String spec : product.getSpecifications().values()) {
+            buffer.addText(spec, terms);
+        }
+        buffer.addText(product.getCategory(), terms);
+
+        return buffer.toFrequency(product.getProductId(), terms);
+    }
+
+    // Term ids of one product, sorted and run-length encoded into counts at the end
+    private static final class TermBuffer {
+        private int[] termIds = new int[32];
+        private int size;
 
-            // Analyze description
-            if (product.getDescription() != null) {
-                analyzeText(product.getDescription(), product.getProductId(), freq);
+        void addText(String text, StringDictionary terms) {
+            if (text == null || text.isBlank()) return;
+
+            String cleaned = NON_WORD.matcher(text.toLowerCase()).replaceAll(" ").trim();
+            for (String word : WHITESPACE.split(cleaned)) {
+                if (word.length() <= 2) continue;
+                if (size == termIds.length) termIds = Arrays.copyOf(termIds, size * 2);
+                termIds[size++] = terms.intern(word);
             }
+        }
 
-            // Analyze specifications
-            if (product.getSpecifications() != null) {
-                product.getSpecifications().values().stream()
-                        .filter(Objects::nonNull)
-                        .forEach(spec -> analyzeText(spec, product.getProductId(), freq));
+        ProductFrequency toFrequency(String productId, StringDictionary terms) {
+            Arrays.sort(termIds, 0, size);
+            int distinct = 0;
+            for (int i = 0; i < size; i++) {
+                if (i == 0 || termIds[i] != termIds[i - 1]) distinct++;
             }
 
-            // Analyze category
-            if (product.getCategory() != null) {
-                analyzeText(product.getCategory(), product.getProductId(), freq);
+            int[] ids = new int[distinct];
+            int[] counts = new int[distinct];
+            int n = -1;
+            for (int i = 0; i < size; i++) {
+                if (i == 0 || termIds[i] != termIds[i - 1]) ids[++n] = termIds[i];
+                counts[n]++;
             }
+            return new ProductFrequency(productId, terms, ids, counts);
+        }
+    }
 
-            productFrequencies.put(product.getProductId(), freq);
-        } catch (Exception e) {
-            System.err.println("Error analyzing product: " + e.getMessage());
+    // Statistics of one analysis. A full analysis swaps in a new instance so readers never see a
+    // partial build; added or removed products update it in place. Per-product counts are
+    // immutable and read without locking; the global ranking is guarded by the instance.
+    private static final class Analysis {
+        final StringDictionary terms;
+        final Map<String, ProductFrequency> byProduct = new ConcurrentHashMap<>();
+        final RankedTermCounts termCounts;
+
+        Analysis(StringDictionary terms, RankedTermCounts termCounts) {
+            this.terms = terms;
+            this.termCounts = termCounts;
+        }
+
+        void add(ProductFrequency frequency) {
+            int[] ids = frequency.getTermIds();
+            int[] counts = frequency.getCounts();
+            for (int i = 0; i < ids.length; i++) {
+                termCounts.add(ids[i], counts[i]);
+            }
+        }
+
+        void subtract(ProductFrequency frequency) {
+            int[] ids = frequency.getTermIds();
+            int[] counts = frequency.getCounts();
+            for (int i = 0; i < ids.length; i++) {
+                termCounts.subtract(ids[i], counts[i]);
+            }
         }
     }
 
-    private void analyzeText(String text, String productId, ProductFrequency freq) {
-        try {
-            if (text == null || text.trim().isEmpty() || productId == null || freq == null) {
-                return;
+    // Dictionary and per-product arrays; global counts are summed again on restore.
+    // Search history is runtime state and is not part of the snapshot.
+    public void writeSnapshot(SnapshotWriter out) throws IOException {
+        Analysis current = analysis;
+        List<String> words = new ArrayList<>(current.terms.size());
+        for (int termId = 0; termId < current.terms.size(); termId++) {
+            words.add(current.terms.get(termId));
+        }
+        out.writeStrings(words);
+
+        List<ProductFrequency> frequencies = new ArrayList<>(current.byProduct.values());
+        out.writeInt(frequencies.size());
+        for (ProductFrequency frequency : frequencies) {
+            out.writeProductRef(frequency.getProductId());
+            out.writeIntArray(frequency.getTermIds());
+            out.writeIntArray(frequency.getCounts());
+        }
+    }
+
+    public synchronized void readSnapshot(SnapshotReader in) {
+        StringDictionary terms = new StringDictionary();
+        for (String word : in.readStrings()) {
+            terms.intern(word);
+        }
+
+        int count = in.readInt();
+        List<ProductFrequency> frequencies = new ArrayList<>(count);
+        int[] termCounts = new int[terms.size()];
+        for (int i = 0; i < count; i++) {
+            String productId = in.readProductRef();
+            ProductFrequency frequency = new ProductFrequency(productId, terms, in.readIntArray(), in.readIntArray());
+            if (productId == null) continue; // Not in the snapshot's catalog
+
+            frequencies.add(frequency);
+            int[] ids = frequency.getTermIds();
+            int[] wordCounts = frequency.getCounts();
+            for (int j = 0; j < ids.length; j++) {
+                termCounts[ids[j]] += wordCounts[j];
             }
+        }
 
-            String[] words = text.toLowerCase()
-                    .replaceAll("[^a-z0-9\\s-]", " ")
-                    .trim()
-                    .split("\\s+");
+        Analysis restored = new Analysis(terms, new RankedTermCounts(termCounts));
+        for (ProductFrequency frequency : frequencies) {
+            restored.byProduct.put(frequency.getProductId(), frequency);
+        }
+        analysis = restored;
+        System.out.println("Frequencies restored: " + terms.size() + " words, " +
+                restored.byProduct.size() + " products");
+    }
+
+    // Called on the query path: only publishes the raw query to the ring.
+    // Normalizing and counting happen later, in batches, on the aggregator thread.
+    public void recordSearch(String query) {
+        if (query != null && searchEvents.offer(query, System.currentTimeMillis()) && aggregatorIdle) {
+            LockSupport.unpark(aggregator);
+        }
+    }
+
+    public long getDroppedSearches() {
+        return searchEvents.getDropped();
+    }
 
-            for (String word : words) {
-                if (word == null || word.length() <= 2 || word.trim().isEmpty()) {
-                    continue;
+    private void aggregateSearches() {
+        String[] queries = new String[SEARCH_BATCH_SIZE];
+        long[] times = new long[SEARCH_BATCH_SIZE];
+        long lastCommit = System.currentTimeMillis();
+        while (true) {
+            // Read before the pass, so every search recorded before shutdown is still counted
+            boolean stopping = stopped;
+            try {
+                for (Runnable task; (task = aggregatorTasks.poll()) != null; ) {
+                    task.run();
                 }
 
-                // Update word frequencies for this product
-                Map<String, Integer> productCounts = wordFrequencies.computeIfAbsent(word,
-                        k -> new ConcurrentHashMap<>());
-                if (productCounts != null) {
-                    productCounts.merge(productId, 1, Integer::sum);
+                int count = searchEvents.drain(queries, times);
+                for (int i = 0; i < count; i++) {
+                    String term = aggregateSearch(queries[i], times[i]);
+                    if (term != null) {
+                        logSearch(term, times[i]);
+                    }
+                    queries[i] = null;
                 }
 
-                // Update global word frequency
-                if (globalWordFrequencies != null) {
-                    globalWordFrequencies.merge(word, 1, Integer::sum);
+                // Group commit: one force covers every search logged since the last one
+                long now = System.currentTimeMillis();
+                if (searchLog != null && now - lastCommit >= GROUP_COMMIT_MILLIS) {
+                    searchLog.force();
+                    lastCommit = now;
                 }
+                if (count == 0) {
+                    if (stopping) break;
+                    // Parks until a search or task arrives; the timeout bounds a missed wakeup and
+                    // keeps group commits going
+                    aggregatorIdle = true;
+                    if (searchEvents.isEmpty() && aggregatorTasks.isEmpty() && !stopped) {
+                        LockSupport.parkNanos(AGGREGATOR_IDLE_NANOS);
+                    }
+                    aggregatorIdle = false;
+                }
+            } catch (Exception e) {
+                System.err.println("Error aggregating searches: " + e.getMessage());
+            }
+        }
+        closeLog();
+    }
+
+    // Counts one search; returns the normalized term, or null when there is nothing to count
+    private String aggregateSearch(String query, long time) {
+        String term = query.trim().toLowerCase();
+        if (term.isEmpty()) {
+            return null;
+        }
+        searchHistory.add(term, time);
+        for (TrendingSearches window : trending) {
+            window.add(term, time);
+        }
+        return term;
+    }
 
-                // Update product frequency
-                freq.incrementWordCount(word);
+    // Replays the search log in the directory into the search counts and trends, then logs every
+    // new search there. Segments are decoded in parallel; the replay and all later writes run on
+    // the aggregator thread, so searches never wait on the disk.
+    public void openSearchLog(Path directory) throws IOException {
+        long start = System.currentTimeMillis();
+        List<SearchEventLog.Events> replay = SearchEventLog.replay(directory);
+        SearchEventLog log = SearchEventLog.open(directory);
+
+        int[] replayed = new int[1];
+        runOnAggregator(() -> {
+            for (SearchEventLog.Events events : replay) {
+                for (int i = 0; i < events.size(); i++) {
+                    aggregateSearch(events.getQuery(i), events.getTime(i));
+                }
+                replayed[0] += events.size();
             }
-        } catch (Exception e) {
-            System.err.println("Error analyzing text: " + e.getMessage());
+            closeLog();
+            searchLog = log;
+        });
+        System.out.println("Replayed " + replayed[0] + " searches from " + directory +
+                " in " + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    private void logSearch(String term, long time) {
+        if (searchLog == null) return;
+        try {
+            searchLog.append(term, time);
+        } catch (IOException e) {
+            System.err.println("Error writing search log, no longer logging searches: " + e.getMessage());
+            closeLog();
         }
     }
 
-    public void recordSearch(String query) {
+    // Forces and closes the search log; later searches are counted but not logged
+    public void closeSearchLog() {
+        runOnAggregator(this::closeLog);
+    }
+
+    private void closeLog() {
+        if (searchLog == null) return;
         try {
-            if (query == null || query.trim().isEmpty()) {
-                return;
-            }
+            searchLog.close();
+        } catch (IOException e) {
+            System.err.println("Error closing search log: " + e.getMessage());
+        }
+        searchLog = null;
+    }
 
-            query = query.toLowerCase().trim();
-            final String finalQuery = query;
-            SearchTerm searchTerm = searchHistory.computeIfAbsent(finalQuery,
-                    k -> new SearchTerm(finalQuery));
-            if (searchTerm != null) {
-                searchTerm.incrementCount();
+    // Stops the aggregator once it has counted and logged the searches recorded so far, and
+    // closes the search log. Searches recorded afterwards are not counted.
+    public void shutdown() {
+        stopped = true;
+        LockSupport.unpark(aggregator);
+        try {
+            aggregator.join(AGGREGATOR_STOP_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (aggregator.isAlive()) {
+            System.err.println("Search aggregator did not stop within " + AGGREGATOR_STOP_MILLIS + " ms");
+        } else {
+            // Only needed when the aggregator died without closing it
+            closeSearchLog();
+        }
+    }
+
+    // Runs the task on the aggregator thread and waits for it. The aggregator's state has no other
+    // writer, so the task runs right here when called from the aggregator or once it has ended.
+    private void runOnAggregator(Runnable task) {
+        if (Thread.currentThread() == aggregator || !aggregator.isAlive()) {
+            task.run();
+            return;
+        }
+
+        FutureTask<Void> queued = new FutureTask<>(task, null);
+        aggregatorTasks.add(queued);
+        LockSupport.unpark(aggregator);
+        try {
+            while (true) {
+                try {
+                    queued.get(AGGREGATOR_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+                    return;
+                } catch (TimeoutException e) {
+                    // The aggregator ended before taking the task
+                    if (!aggregator.isAlive() && aggregatorTasks.remove(queued)) {
+                        queued.run();
+                    }
+                }
             }
-        } catch (Exception e) {
-            System.err.println("Error recording search: " + e.getMessage());
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IllegalStateException("Search aggregator task failed", cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for the search aggregator", e);
         }
     }
 
+    // Most frequent words first, read off the maintained ranking in O(limit)
     public List<FrequencyResult> getTopWords(int limit) {
         try {
             if (limit <= 0) {
                 return Collections.emptyList();
             }
 
-            return globalWordFrequencies.entrySet().stream()
-                    .filter(e -> e.getKey() != null && e.getValue() != null)
-                    .map(e -> new FrequencyResult(e.getKey(), e.getValue()))
-                    .sorted(Comparator.comparingInt(FrequencyResult::getFrequency).reversed())
-                    .limit(limit)
-                    .toList();
+            Analysis current = analysis;
+            List<FrequencyResult> result = new ArrayList<>(limit);
+            synchronized (current) {
+                RankedTermCounts ranking = current.termCounts;
+                for (int rank = 0; rank < ranking.size() && result.size() < limit; rank++) {
+                    int termId = ranking.termAt(rank);
+                    int count = ranking.count(termId);
+                    if (count == 0) break;
+                    result.add(new FrequencyResult(current.terms.get(termId), count));
+                }
+            }
+            return result;
         } catch (Exception e) {
             System.err.println("Error getting top words: " + e.getMessage());
             return Collections.emptyList();
         }
     }
 
+    // The most searched terms from a fixed number of counters; each carries its own error bound
     public List<SearchTerm> getTopSearches(int limit) {
         try {
             if (limit <= 0) {
                 return Collections.emptyList();
             }
-
-            return searchHistory.values().stream()
-                    .filter(Objects::nonNull)
-                    .sorted(Comparator.comparingInt(SearchTerm::getCount).reversed())
-                    .limit(limit)
-                    .toList();
+            return searchHistory.top(limit);
         } catch (Exception e) {
             System.err.println("Error getting top searches: " + e.getMessage());
             return Collections.emptyList();
         }
     }
 
+    // Estimated number of times a query was searched; never less than the true count
+    public long getSearchCount(String query) {
+        if (query == null || query.trim().isEmpty()) {
+            return 0;
+        }
+        return searchHistory.estimate(query.trim().toLowerCase());
+    }
+
+    public long getTotalSearches() {
+        return searchHistory.getTotal();
+    }
+
+    // No tracked search count is more than this above the true count
+    public long getSearchErrorBound() {
+        return searchHistory.errorBound();
+    }
+
+    // What is being searched now: searches in the window, weighted down exponentially with age.
+    // Uses the tracked window closest to the one asked for (1 hour, 1 day or 7 days).
+    public List<TrendingSearch> getTrendingSearches(Duration window, int limit) {
+        try {
+            if (window == null || limit <= 0) {
+                return Collections.emptyList();
+            }
+            return trendingWindow(window.toMillis()).top(limit, System.currentTimeMillis());
+        } catch (Exception e) {
+            System.err.println("Error getting trending searches: " + e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    // Recent searches for exactly this term over the last day; 0 if it is not trending
+    public double getTrendScore(String term) {
+        if (term == null) {
+            return 0;
+        }
+        return trendingWindow(COMPLETION_TREND_WINDOW.toMillis())
+                .score(term.trim().toLowerCase(), System.currentTimeMillis());
+    }
+
+    private TrendingSearches trendingWindow(long windowMillis) {
+        TrendingSearches closest = trending[0];
+        for (TrendingSearches window : trending) {
+            if (Math.abs(Math.log((double) window.getWindowMillis() / windowMillis)) <
+                    Math.abs(Math.log((double) closest.getWindowMillis() / windowMillis))) {
+                closest = window;
+            }
+        }
+        return closest;
+    }
+
     public int getWordFrequency(String word, String productId) {
         try {
             if (word == null || productId == null) {
                 return 0;
             }
-            Map<String, Integer> productCounts = wordFrequencies.get(word.toLowerCase());
-            return productCounts != null ? productCounts.getOrDefault(productId, 0) : 0;
+            ProductFrequency frequency = analysis.byProduct.get(productId);
+            return frequency != null ? frequency.getCount(word.toLowerCase()) : 0;
         } catch (Exception e) {
             System.err.println("Error getting word frequency: " + e.getMessage());
             return 0;
@@ -183,7 +559,14 @@ public class FrequencyAnalyzer {
             if (word == null) {
                 return 0;
             }
-            return globalWordFrequencies.getOrDefault(word.toLowerCase(), 0);
+            Analysis current = analysis;
+            int termId = current.terms.codeOf(word.toLowerCase());
+            if (termId < 0) {
+                return 0;
+            }
+            synchronized (current) {
+                return current.termCounts.count(termId);
+            }
         } catch (Exception e) {
             System.err.println("Error getting global word frequency: " + e.getMessage());
             return 0;
@@ -195,11 +578,11 @@ public class FrequencyAnalyzer {
             if (productId == null) {
                 return Collections.emptyMap();
             }
-            ProductFrequency freq = productFrequencies.get(productId);
+            ProductFrequency freq = analysis.byProduct.get(productId);
             return freq != null ? freq.getWordFrequencies() : Collections.emptyMap();
         } catch (Exception e) {
             System.err.println("Error getting word frequencies for product: " + e.getMessage());
             return Collections.emptyMap();
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,160 @@
+package com.searchengine.core.frequency;
+
+import java.util.*;
+
+// Space-Saving over a fixed number of counters, kept as a Stream-Summary: buckets of equal count
+// in ascending order, so an increment moves a term one bucket up and top-K walks down from the
+// largest bucket in O(K). A term arriving when all counters are taken replaces one with the
+// minimum count; the Count-Min sketch caps the count it inherits.
+//
+// Bounds after N searches with m counters: a tracked count overestimates by at most its
+// getError() <= N / m, and every term searched more than N / m times is tracked.
+// One writer (the search aggregator) and any number of readers; all access is synchronized.
+class HeavyHitters {
+    private final int capacity;
+    private final CountMinSketch sketch;
+    private final Map<String, Entry> entries;
+    private Bucket smallest;
+    private Bucket largest;
+
+    private static final class Bucket {
+        final int count;
+        Bucket lower;
+        Bucket higher;
+        Entry first;
+
+        Bucket(int count) {
+            this.count = count;
+        }
+    }
+
+    private static final class Entry {
+        final SearchTerm term;
+        Bucket bucket;
+        Entry previous;
+        Entry next;
+
+        Entry(SearchTerm term) {
+            this.term = term;
+        }
+    }
+
+    HeavyHitters(int capacity, CountMinSketch sketch) {
+        this.capacity = capacity;
+        this.sketch = sketch;
+        this.entries = new HashMap<>(capacity * 2);
+    }
+
+    synchronized void add(String term, long time) {
+        long estimate = sketch.add(term);
+
+        Entry entry = entries.get(term);
+        if (entry != null) {
+            entry.term.record(time);
+            Bucket from = entry.bucket;
+            unlink(entry);
+            link(entry, from, from.count + 1);
+            return;
+        }
+
+        int count = 1;
+        if (entries.size() >= capacity) {
+            Entry victim = smallest.first;
+            int minimum = smallest.count;
+            unlink(victim);
+            entries.remove(victim.term.getTerm());
+            count = (int) Math.min(minimum + 1L, estimate);
+        }
+
+        // The inherited part of the count is the error; only one search is known to be this term
+        entry = new Entry(new SearchTerm(term, time, count, count - 1));
+        entries.put(term, entry);
+        link(entry, null, count);
+    }
+
+    // Largest counts first, ties in no particular order
+    synchronized List<SearchTerm> top(int limit) {
+        List<SearchTerm> result = new ArrayList<>(Math.min(limit, entries.size()));
+        for (Bucket bucket = largest; bucket != null && result.size() < limit; bucket = bucket.lower) {
+            for (Entry entry = bucket.first; entry != null && result.size() < limit; entry = entry.next) {
+                result.add(entry.term);
+            }
+        }
+        return result;
+    }
+
+    // Point estimate for any term: the tracked count if there is one, else the sketch
+    synchronized long estimate(String term) {
+        Entry entry = entries.get(term);
+        long estimate = sketch.estimate(term);
+        return entry != null ? Math.min(entry.term.getCount(), estimate) : estimate;
+    }
+
+    synchronized long getTotal() {
+        return sketch.getTotal();
+    }
+
+    // Largest overestimate of any tracked count
+    synchronized long errorBound() {
+        return entries.size() < capacity ? 0 : smallest.count;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private void unlink(Entry entry) {
+        Bucket bucket = entry.bucket;
+        if (entry.previous != null) entry.previous.next = entry.next;
+        else bucket.first = entry.next;
+        if (entry.next != null) entry.next.previous = entry.previous;
+        entry.previous = null;
+        entry.next = null;
+        entry.bucket = null;
+
+        if (bucket.first == null) {
+            if (bucket.lower != null) bucket.lower.higher = bucket.higher;
+            else smallest = bucket.higher;
+            if (bucket.higher != null) bucket.higher.lower = bucket.lower;
+            else largest = bucket.lower;
+        }
+    }
+
+    // Places the entry in the bucket for count. Searching starts just above after (or at the
+    // smallest bucket when after is null): counts only ever grow by one, and a replacement
+    // never inherits more than the minimum plus one, so this is a step or two at most.
+    private void link(Entry entry, Bucket after, int count) {
+        Bucket lower = null;
+        Bucket candidate = smallest;
+        if (after != null && after.first != null) {
+            lower = after;
+            candidate = after.higher;
+        } else if (after != null) {
+            // after was emptied and unlinked; its neighbours are still valid
+            lower = after.lower;
+            candidate = after.higher;
+        }
+        while (candidate != null && candidate.count < count) {
+            lower = candidate;
+            candidate = candidate.higher;
+        }
+
+        Bucket bucket;
+        if (candidate != null && candidate.count == count) {
+            bucket = candidate;
+        } else {
+            bucket = new Bucket(count);
+            bucket.lower = lower;
+            bucket.higher = candidate;
+            if (lower != null) lower.higher = bucket;
+            else smallest = bucket;
+            if (candidate != null) candidate.lower = bucket;
+            else largest = bucket;
+        }
+
+        entry.bucket = bucket;
+        entry.next = bucket.first;
+        if (bucket.first != null) bucket.first.previous = entry;
+        bucket.first = entry;
+    }
+}
@@ -1,30 +1,51 @@
 package com.searchengine.core.frequency;
 
+import com.searchengine.model.StringDictionary;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
+// Word counts of one product as parallel sorted arrays of term ids and counts; immutable once built
 public class ProductFrequency {
     private final String productId;
-    private final Map<String, Integer> wordFrequencies;
-    private int totalWords;
+    private final StringDictionary terms;
+    private final int[] termIds; // Ascending
+    private final int[] counts;
+    private final int totalWords;
 
-    public ProductFrequency(String productId) {
+    ProductFrequency(String productId, StringDictionary terms, int[] termIds, int[] counts) {
         this.productId = productId;
-        this.wordFrequencies = new ConcurrentHashMap<>();
-        this.totalWords = 0;
-    }
-
-    public void incrementWordCount(String word) {
-        wordFrequencies.merge(word, 1, Integer::sum);
-        totalWords++;
+        this.terms = terms;
+        this.termIds = termIds;
+        this.counts = counts;
+        int total = 0;
+        for (int count : counts) total += count;
+        this.totalWords = total;
     }
 
     public String getProductId() { return productId; }
-    public Map<String, Integer> getWordFrequencies() { return wordFrequencies; }
     public int getTotalWords() { return totalWords; }
 
+    int[] getTermIds() { return termIds; }
+    int[] getCounts() { return counts; }
+
+    public int getCount(String word) {
+        int termId = terms.codeOf(word);
+        return termId < 0 ? 0 : getCount(termId);
+    }
+
+    int getCount(int termId) {
+        int index = Arrays.binarySearch(termIds, termId);
+        return index < 0 ? 0 : counts[index];
+    }
+
+    public Map<String, Integer> getWordFrequencies() {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (int i = 0; i < termIds.length; i++) {
+            frequencies.put(terms.get(termIds[i]), counts[i]);
+        }
+        return Collections.unmodifiableMap(frequencies);
+    }
+
     public double getWordFrequencyRatio(String word) {
-        return totalWords == 0 ? 0 :
-                (double) wordFrequencies.getOrDefault(word, 0) / totalWords;
+        return totalWords == 0 ? 0 : (double) getCount(word) / totalWords;
     }
 }
@@ -0,0 +1,142 @@
+package com.searchengine.core.frequency;
+
+import java.util.Arrays;
+
+// Global term counts kept in descending order as they change, so top-K is the first K slots.
+// order holds term ids by count, highest first; terms with equal counts form a bucket, a
+// contiguous range of order. Changing a count by one swaps the term to the edge of its bucket
+// and moves that edge, which is O(1) per word occurrence and never re-sorts the vocabulary.
+// Not thread-safe; FrequencyAnalyzer guards it.
+class RankedTermCounts {
+    private int[] order;       // Term ids, counts descending
+    private int[] position;    // [term id] -> index in order
+    private Bucket[] bucketOf; // [term id] -> bucket holding its count
+    private int size;
+
+    private static final class Bucket {
+        final int count;
+        int start; // Inclusive range of order
+        int end;
+
+        Bucket(int count, int start, int end) {
+            this.count = count;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    // Ranks initial counts indexed by term id with a single sort
+    RankedTermCounts(int[] counts) {
+        long[] keys = new long[counts.length];
+        for (int termId = 0; termId < counts.length; termId++) {
+            // Ascending keys give counts descending, then term ids ascending
+            keys[termId] = ((long) (Integer.MAX_VALUE - counts[termId]) << 32) | termId;
+        }
+        Arrays.sort(keys);
+
+        this.size = counts.length;
+        this.order = new int[Math.max(16, size)];
+        this.position = new int[order.length];
+        this.bucketOf = new Bucket[order.length];
+        Bucket bucket = null;
+        for (int i = 0; i < size; i++) {
+            int termId = (int) keys[i];
+            order[i] = termId;
+            position[termId] = i;
+            if (bucket == null || bucket.count != counts[termId]) {
+                bucket = new Bucket(counts[termId], i, i);
+            } else {
+                bucket.end = i;
+            }
+            bucketOf[termId] = bucket;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    int count(int termId) {
+        return termId < size ? bucketOf[termId].count : 0;
+    }
+
+    // Term id with the given rank, 0 being the most frequent
+    int termAt(int rank) {
+        return order[rank];
+    }
+
+    void add(int termId, int amount) {
+        ensureTerm(termId);
+        for (int i = 0; i < amount; i++) {
+            increment(termId);
+        }
+    }
+
+    void subtract(int termId, int amount) {
+        for (int i = 0; i < amount && count(termId) > 0; i++) {
+            decrement(termId);
+        }
+    }
+
+    private void increment(int termId) {
+        Bucket bucket = bucketOf[termId];
+        swap(position[termId], bucket.start);
+
+        int first = bucket.start;
+        Bucket higher = first > 0 ? bucketOf[order[first - 1]] : null;
+        if (higher != null && higher.count == bucket.count + 1) {
+            higher.end = first;
+        } else {
+            higher = new Bucket(bucket.count + 1, first, first);
+        }
+        bucket.start++;
+        bucketOf[termId] = higher;
+    }
+
+    private void decrement(int termId) {
+        Bucket bucket = bucketOf[termId];
+        swap(position[termId], bucket.end);
+
+        int last = bucket.end;
+        Bucket lower = last + 1 < size ? bucketOf[order[last + 1]] : null;
+        if (lower != null && lower.count == bucket.count - 1) {
+            lower.start = last;
+        } else {
+            lower = new Bucket(bucket.count - 1, last, last);
+        }
+        bucket.end--;
+        bucketOf[termId] = lower;
+    }
+
+    // New term ids join with a count of zero at the end of the order
+    private void ensureTerm(int termId) {
+        if (termId < size) return;
+        if (termId >= order.length) {
+            int capacity = Math.max(termId + 1, order.length * 2);
+            order = Arrays.copyOf(order, capacity);
+            position = Arrays.copyOf(position, capacity);
+            bucketOf = Arrays.copyOf(bucketOf, capacity);
+        }
+        while (size <= termId) {
+            Bucket last = size > 0 ? bucketOf[order[size - 1]] : null;
+            if (last != null && last.count == 0) {
+                last.end = size;
+            } else {
+                last = new Bucket(0, size, size);
+            }
+            order[size] = size;
+            position[size] = size;
+            bucketOf[size] = last;
+            size++;
+        }
+    }
+
+    private void swap(int i, int j) {
+        int a = order[i];
+        int b = order[j];
+        order[i] = b;
+        order[j] = a;
+        position[b] = i;
+        position[a] = j;
+    }
+}
@@ -0,0 +1,222 @@
+package com.searchengine.core.frequency;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+// Append-only binary log of searches, split into numbered segment files that are memory-mapped
+// for writing. Segment: magic, version, then records of
+//   length (int, 0 ends the segment), crc32 of time and query (int), time (long), UTF-8 query.
+// A torn or corrupt record ends its segment on replay. Every process start writes a new segment,
+// so a crash never leaves stale bytes behind the next append. Not thread-safe: the search
+// aggregator is the only writer.
+public class SearchEventLog implements Closeable {
+    public static final String DEFAULT_LOG_DIRECTORY = "ACC-Project/search-log";
+
+    private static final int MAGIC = 0x4143434C; // "ACCL"
+    private static final int VERSION = 1;
+    private static final int SEGMENT_HEADER = 8;
+    private static final int RECORD_HEADER = 16;
+    private static final int SEGMENT_SIZE = 8 << 20;
+    private static final int MAX_QUERY_BYTES = 1024;
+    private static final long MAX_LOG_BYTES = 256L << 20; // Oldest segments are deleted beyond this
+    private static final String SEGMENT_PREFIX = "search-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final CRC32 crc = new CRC32();
+    private final ByteBuffer timeBytes = ByteBuffer.allocate(Long.BYTES);
+    private long segmentNumber;
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private boolean dirty;
+
+    // Searches read back from one segment, in the order they were logged
+    public static final class Events {
+        private final String[] queries;
+        private final long[] times;
+
+        Events(String[] queries, long[] times) {
+            this.queries = queries;
+            this.times = times;
+        }
+
+        public int size() { return queries.length; }
+        public String getQuery(int index) { return queries[index]; }
+        public long getTime(int index) { return times[index]; }
+    }
+
+    private SearchEventLog(Path directory, long segmentNumber) {
+        this.directory = directory;
+        this.segmentNumber = segmentNumber;
+    }
+
+    // Starts a new segment after any existing ones. Each start adds a full-size segment, so the
+    // size limit is applied here as well as on rotation.
+    public static SearchEventLog open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        List<Path> segments = segments(directory);
+        long next = segments.isEmpty() ? 1 : segmentNumber(segments.get(segments.size() - 1)) + 1;
+
+        SearchEventLog log = new SearchEventLog(directory, next);
+        log.startSegment();
+        log.deleteOldSegments();
+        return log;
+    }
+
+    // Reads every segment, oldest first; segments are decoded in parallel
+    public static List<Events> replay(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return Collections.emptyList();
+        }
+        return segments(directory).parallelStream()
+                .map(SearchEventLog::readSegment)
+                .collect(Collectors.toList());
+    }
+
+    public void append(String query, long time) throws IOException {
+        byte[] bytes = query.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length == 0 || bytes.length > MAX_QUERY_BYTES) return;
+
+        // Keep room for the terminating zero length
+        if (segment.remaining() < RECORD_HEADER + bytes.length + Integer.BYTES) {
+            rotate();
+        }
+
+        int checksum = checksum(crc, timeBytes, time, bytes);
+        int start = segment.position();
+        segment.position(start + Integer.BYTES);
+        segment.putInt(checksum);
+        segment.putLong(time);
+        segment.put(bytes);
+        segment.putInt(start, bytes.length); // Length last: a reader never sees a half-written record
+        dirty = true;
+    }
+
+    // Group commit: one msync for everything appended since the last call
+    public void force() {
+        if (dirty) {
+            segment.force();
+            dirty = false;
+        }
+    }
+
+    // Forces the segment and closes its file. The file keeps its full mapped size: it cannot be
+    // truncated while still mapped (Windows refuses), and replay stops at the zero-filled tail.
+    @Override
+    public void close() throws IOException {
+        if (channel == null) return;
+        try {
+            force();
+        } finally {
+            segment = null;
+            FileChannel closing = channel;
+            channel = null;
+            closing.close();
+        }
+    }
+
+    private void rotate() throws IOException {
+        close();
+        segmentNumber++;
+        startSegment();
+        deleteOldSegments();
+    }
+
+    private void startSegment() throws IOException {
+        Path path = directory.resolve(String.format("%s%010d%s", SEGMENT_PREFIX, segmentNumber, SEGMENT_SUFFIX));
+        channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, SEGMENT_SIZE);
+        segment.putInt(MAGIC);
+        segment.putInt(VERSION);
+        dirty = true;
+    }
+
+    private void deleteOldSegments() throws IOException {
+        List<Path> segments = segments(directory);
+        long total = 0;
+        for (Path path : segments) {
+            total += Files.size(path);
+        }
+        for (int i = 0; i < segments.size() - 1 && total > MAX_LOG_BYTES; i++) {
+            total -= Files.size(segments.get(i));
+            Files.delete(segments.get(i));
+        }
+    }
+
+    private static Events readSegment(Path path) {
+        List<String> queries = new ArrayList<>();
+        long[] times = new long[1024];
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < SEGMENT_HEADER || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                System.err.println("Skipping search log segment " + path + ": bad header");
+                return new Events(new String[0], new long[0]);
+            }
+
+            CRC32 crc = new CRC32();
+            ByteBuffer timeBytes = ByteBuffer.allocate(Long.BYTES);
+            while (buffer.remaining() >= RECORD_HEADER) {
+                int length = buffer.getInt();
+                if (length <= 0 || length > MAX_QUERY_BYTES || buffer.remaining() < RECORD_HEADER - Integer.BYTES + length) {
+                    break;
+                }
+                int expected = buffer.getInt();
+                long time = buffer.getLong();
+                byte[] bytes = new byte[length];
+                buffer.get(bytes);
+
+                if (checksum(crc, timeBytes, time, bytes) != expected) {
+                    System.err.println("Search log segment " + path + " is torn after " + queries.size() + " searches");
+                    break;
+                }
+                if (queries.size() == times.length) times = Arrays.copyOf(times, times.length * 2);
+                times[queries.size()] = time;
+                queries.add(new String(bytes, StandardCharsets.UTF_8));
+            }
+        } catch (IOException | BufferUnderflowException e) {
+            System.err.println("Error reading search log segment " + path + ": " + e.getMessage());
+        }
+
+        return new Events(queries.toArray(new String[0]), Arrays.copyOf(times, queries.size()));
+    }
+
+    private static int checksum(CRC32 crc, ByteBuffer timeBytes, long time, byte[] query) {
+        crc.reset();
+        timeBytes.clear();
+        timeBytes.putLong(0, time);
+        crc.update(timeBytes);
+        crc.update(query);
+        return (int) crc.getValue();
+    }
+
+    private static List<Path> segments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted(Comparator.comparingLong(SearchEventLog::segmentNumber))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static long segmentNumber(Path path) {
+        String name = path.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.searchengine.core.frequency;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Bounded lock-free ring of search events: any number of query threads publish, one aggregator drains.
+// Each slot carries a sequence number: slot == sequence means free for that position,
+// sequence == position + 1 means published. A full ring drops the event instead of blocking a search.
+class SearchEventRing {
+    private final int mask;
+    private final String[] queries;
+    private final long[] times;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong(); // Next position a producer claims
+    private final LongAdder dropped = new LongAdder();
+    private long head;                                // Next position the consumer reads; consumer only
+
+    SearchEventRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.mask = size - 1;
+        this.queries = new String[size];
+        this.times = new long[size];
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    boolean offer(String query, long time) {
+        for (;;) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long sequence = sequences.get(index);
+            if (sequence < position) {
+                // The consumer has not freed this slot from the previous lap yet
+                dropped.increment();
+                return false;
+            }
+            if (sequence == position && tail.compareAndSet(position, position + 1)) {
+                queries[index] = query;
+                times[index] = time;
+                sequences.lazySet(index, position + 1); // Publishes the plain writes above
+                return true;
+            }
+        }
+    }
+
+    // Copies up to batchQueries.length published events in order; returns how many were copied
+    int drain(String[] batchQueries, long[] batchTimes) {
+        int count = 0;
+        while (count < batchQueries.length) {
+            int index = (int) head & mask;
+            if (sequences.get(index) != head + 1) break;
+
+            batchQueries[count] = queries[index];
+            batchTimes[count] = times[index];
+            queries[index] = null;
+            sequences.lazySet(index, head + mask + 1); // Free for the next lap
+            head++;
+            count++;
+        }
+        return count;
+    }
+
+    // Consumer only: no published event is waiting at the head
+    boolean isEmpty() {
+        return sequences.get((int) head & mask) != head + 1;
+    }
+
+    long getDropped() {
+        return dropped.sum();
+    }
+}
@@ -1,34 +1,57 @@
 package com.searchengine.core.frequency;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class SearchTerm {
     private final String term;
     private final AtomicInteger count;
-    private final LocalDateTime firstSearched;
-    private LocalDateTime lastSearched;
+    private final int error;               // Upper bound on how much count overestimates
+    private final long firstSearched;      // Epoch millis
+    private final AtomicLong lastSearched; // Epoch millis, only ever moves forward
 
     public SearchTerm(String term) {
+        this(term, System.currentTimeMillis());
+    }
+
+    SearchTerm(String term, long time) {
+        this(term, time, 0, 0);
+    }
+
+    SearchTerm(String term, long time, int count, int error) {
         this.term = term;
-        this.count = new AtomicInteger(0);
-        this.firstSearched = LocalDateTime.now();
-        this.lastSearched = firstSearched;
+        this.count = new AtomicInteger(count);
+        this.error = error;
+        this.firstSearched = time;
+        this.lastSearched = new AtomicLong(time);
     }
 
     public void incrementCount() {
+        record(System.currentTimeMillis());
+    }
+
+    void record(long time) {
         count.incrementAndGet();
-        lastSearched = LocalDateTime.now();
+        lastSearched.accumulateAndGet(time, Math::max);
     }
 
     public String getTerm() { return term; }
     public int getCount() { return count.get(); }
-    public LocalDateTime getFirstSearched() { return firstSearched; }
-    public LocalDateTime getLastSearched() { return lastSearched; }
+    public int getError() { return error; }
+    public int getGuaranteedCount() { return count.get() - error; }
+    public LocalDateTime getFirstSearched() { return toDateTime(firstSearched); }
+    public LocalDateTime getLastSearched() { return toDateTime(lastSearched.get()); }
+
+    private static LocalDateTime toDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
 
     @Override
     public String toString() {
         return String.format("%s (searched %d times, last: %s)",
-                term, count.get(), lastSearched);
+                term, count.get(), getLastSearched());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,21 @@
+package com.searchengine.core.frequency;
+
+public class TrendingSearch {
+    private final String term;
+    private final double score;
+
+    public TrendingSearch(String term, double score) {
+        this.term = term;
+        this.score = score;
+    }
+
+    public String getTerm() { return term; }
+
+    // Searches within the window, each weighted down exponentially with its age
+    public double getScore() { return score; }
+
+    @Override
+    public String toString() {
+        return String.format("%s (%.1f recent searches)", term, score);
+    }
+}
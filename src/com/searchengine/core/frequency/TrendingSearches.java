@@ -0,0 +1,113 @@
+package com.searchengine.core.frequency;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+// Exponentially decayed search counts over one window, using forward decay: a search at time t
+// adds e^((t - landmark) / window) to its term. Weights of terms that are not searched never
+// change, so the ranking only moves on a hit and is kept sorted in a skip list; the decayed
+// score at time now is weight * e^((landmark - now) / window).
+// One writer (the search aggregator); readers never lock.
+class TrendingSearches {
+    private static final double MAX_EXPONENT = 60;     // Rescale before weights grow past e^60
+    private static final double MIN_WEIGHT = 1e-6;     // Dropped when rescaling
+
+    private static final Comparator<Trend> BY_WEIGHT = Comparator
+            .comparingDouble((Trend trend) -> trend.weight).reversed()
+            .thenComparing(trend -> trend.term);
+
+    private final long windowMillis;
+    private final int capacity;
+    private volatile State state;
+
+    private static final class Trend {
+        final String term;
+        final double weight;
+
+        Trend(String term, double weight) {
+            this.term = term;
+            this.weight = weight;
+        }
+    }
+
+    // Weights are relative to the landmark, so a rescale swaps in a whole new state
+    private static final class State {
+        final long landmark;
+        final Map<String, Trend> trends = new ConcurrentHashMap<>();
+        final NavigableSet<Trend> ranking = new ConcurrentSkipListSet<>(BY_WEIGHT);
+
+        State(long landmark) {
+            this.landmark = landmark;
+        }
+    }
+
+    TrendingSearches(long windowMillis, int capacity) {
+        this.windowMillis = windowMillis;
+        this.capacity = capacity;
+        this.state = new State(System.currentTimeMillis());
+    }
+
+    long getWindowMillis() {
+        return windowMillis;
+    }
+
+    void add(String term, long time) {
+        State current = state;
+        double exponent = (double) (time - current.landmark) / windowMillis;
+        if (exponent > MAX_EXPONENT) {
+            current = rescale(time);
+            exponent = 0;
+        }
+
+        Trend previous = current.trends.get(term);
+        Trend updated = new Trend(term, (previous != null ? previous.weight : 0) + Math.exp(exponent));
+        if (previous == null && current.trends.size() >= capacity) {
+            // The lowest weight is the term whose searches are the fewest and oldest
+            Trend coldest = current.ranking.pollLast();
+            if (coldest != null) current.trends.remove(coldest.term);
+        }
+        // Added before the old entry is removed so a reader never misses the term
+        current.trends.put(term, updated);
+        current.ranking.add(updated);
+        if (previous != null) {
+            current.ranking.remove(previous);
+        }
+    }
+
+    List<TrendingSearch> top(int limit, long now) {
+        State current = state;
+        double decay = Math.exp((double) (current.landmark - now) / windowMillis);
+        List<TrendingSearch> result = new ArrayList<>(limit);
+        Set<String> seen = new HashSet<>();
+        for (Trend trend : current.ranking) {
+            if (result.size() >= limit) break;
+            // A concurrent update may briefly show a term at its old and new position
+            if (seen.add(trend.term)) {
+                result.add(new TrendingSearch(trend.term, trend.weight * decay));
+            }
+        }
+        return result;
+    }
+
+    double score(String term, long now) {
+        State current = state;
+        Trend trend = current.trends.get(term);
+        return trend == null ? 0 : trend.weight * Math.exp((double) (current.landmark - now) / windowMillis);
+    }
+
+    private State rescale(long time) {
+        State previous = state;
+        State rescaled = new State(time);
+        double factor = Math.exp((double) (previous.landmark - time) / windowMillis);
+        for (Trend trend : previous.ranking) {
+            double weight = trend.weight * factor;
+            if (weight < MIN_WEIGHT) break;
+            Trend moved = new Trend(trend.term, weight);
+            rescaled.trends.put(trend.term, moved);
+            rescaled.ranking.add(moved);
+        }
+        state = rescaled;
+        return rescaled;
+    }
+}
@@ -0,0 +1,25 @@
+package com.searchengine.core.indexing;
+
+import com.searchengine.model.Product;
+import java.util.*;
+
+// Products for a list of doc ids, hydrated from the stored fields only when an element is read
+class DocumentList extends AbstractList<Product> implements RandomAccess {
+    private final int[] docIds;
+    private final StoredFields storedFields;
+
+    DocumentList(int[] docIds, StoredFields storedFields) {
+        this.docIds = docIds;
+        this.storedFields = storedFields;
+    }
+
+    @Override
+    public Product get(int index) {
+        return storedFields.document(docIds[index]);
+    }
+
+    @Override
+    public int size() {
+        return docIds.length;
+    }
+}
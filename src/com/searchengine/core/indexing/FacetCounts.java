@@ -0,0 +1,73 @@
+package com.searchengine.core.indexing;
+
+import java.util.*;
+
+public class FacetCounts {
+    private final FacetIndex.Ordinals ordinals;
+    private final int[][] counts; // [dimension][ordinal]
+
+    FacetCounts(FacetIndex.Ordinals ordinals) {
+        this.ordinals = ordinals;
+        this.counts = new int[FacetIndex.DIMENSIONS.length][];
+        for (int d = 0; d < counts.length; d++) {
+            counts[d] = new int[ordinals.values[d].length];
+        }
+    }
+
+    // Called once per matching doc from the scoring loop
+    void collect(int docId) {
+        if (docId >= ordinals.docCount) return;
+        for (int d = 0; d < counts.length; d++) {
+            int[] docOrdinals = ordinals.docOrdinals[d];
+            int[] dimensionCounts = counts[d];
+            for (int i = ordinals.offsets[d][docId]; i < ordinals.offsets[d][docId + 1]; i++) {
+                dimensionCounts[docOrdinals[i]]++;
+            }
+        }
+    }
+
+    int getDocCount() {
+        return ordinals.docCount;
+    }
+
+    public int getCount(String dimension, String value) {
+        int d = dimensionIndex(dimension);
+        if (d < 0) return 0;
+        Integer ordinal = ordinals.ordinalOf.get(d).get(value);
+        return ordinal == null ? 0 : counts[d][ordinal];
+    }
+
+    // Non-zero counts of one dimension, highest first
+    public Map<String, Integer> getCounts(String dimension) {
+        int d = dimensionIndex(dimension);
+        if (d < 0) return Collections.emptyMap();
+
+        List<Integer> ordinalsByCount = new ArrayList<>();
+        for (int ordinal = 0; ordinal < counts[d].length; ordinal++) {
+            if (counts[d][ordinal] > 0) ordinalsByCount.add(ordinal);
+        }
+        int[] dimensionCounts = counts[d];
+        ordinalsByCount.sort((o1, o2) -> Integer.compare(dimensionCounts[o2], dimensionCounts[o1]));
+
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (int ordinal : ordinalsByCount) {
+            result.put(ordinals.values[d][ordinal], dimensionCounts[ordinal]);
+        }
+        return result;
+    }
+
+    public Map<String, Map<String, Integer>> toMap() {
+        Map<String, Map<String, Integer>> result = new LinkedHashMap<>();
+        for (String dimension : FacetIndex.DIMENSIONS) {
+            result.put(dimension, getCounts(dimension));
+        }
+        return result;
+    }
+
+    private int dimensionIndex(String dimension) {
+        for (int d = 0; d < FacetIndex.DIMENSIONS.length; d++) {
+            if (FacetIndex.DIMENSIONS[d].equals(dimension)) return d;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,100 @@
+package com.searchengine.core.indexing;
+
+import com.searchengine.model.Product;
+import java.util.*;
+
+public final class FacetIndex {
+    public static final String COMPANY = "Company";
+    public static final String TYPE = "Type";
+    public static final String AUDIO_TECHNOLOGY = "Audio Technology";
+    public static final String CONNECTIVITY = "Connectivity";
+    public static final String CONNECTIVITY_PREFIX = "Connectivity: ";
+
+    static final String[] DIMENSIONS = {COMPANY, TYPE, AUDIO_TECHNOLOGY, CONNECTIVITY};
+
+    private volatile Ordinals ordinals;
+
+    public FacetIndex() {
+        build(Collections.emptyList());
+    }
+
+    public void build(List<Product> products) {
+        int docCount = products.size();
+        List<Map<String, Integer>> valueOrdinals = new ArrayList<>();
+        int[][] offsets = new int[DIMENSIONS.length][docCount + 1];
+        GrowableIntArray[] docOrdinals = new GrowableIntArray[DIMENSIONS.length];
+        for (int d = 0; d < DIMENSIONS.length; d++) {
+            valueOrdinals.add(new LinkedHashMap<>());
+            docOrdinals[d] = new GrowableIntArray();
+        }
+
+        for (int docId = 0; docId < docCount; docId++) {
+            Product product = products.get(docId);
+
+            addValue(0, product.getCategory(), valueOrdinals, docOrdinals);
+            addValue(1, product.getSpecifications().get("Type"), valueOrdinals, docOrdinals);
+            for (String feature : product.getFeatures()) {
+                if (feature.startsWith(CONNECTIVITY_PREFIX)) {
+                    addValue(3, feature.substring(CONNECTIVITY_PREFIX.length()), valueOrdinals, docOrdinals);
+                } else {
+                    addValue(2, feature, valueOrdinals, docOrdinals);
+                }
+            }
+
+            // Ordinals of a doc live in [offsets[d][docId], offsets[d][docId + 1])
+            for (int d = 0; d < DIMENSIONS.length; d++) {
+                offsets[d][docId + 1] = docOrdinals[d].size();
+            }
+        }
+
+        int[][] flatOrdinals = new int[DIMENSIONS.length][];
+        for (int d = 0; d < DIMENSIONS.length; d++) {
+            flatOrdinals[d] = docOrdinals[d].toArray();
+        }
+        ordinals = new Ordinals(docCount, valueOrdinals, offsets, flatOrdinals);
+    }
+
+    private void addValue(int dimension, String value, List<Map<String, Integer>> valueOrdinals,
+                          GrowableIntArray[] docOrdinals) {
+        if (value == null) return;
+        Map<String, Integer> ordinalsOfDimension = valueOrdinals.get(dimension);
+        int ordinal = ordinalsOfDimension.computeIfAbsent(value, k -> ordinalsOfDimension.size());
+        docOrdinals[dimension].add(ordinal);
+    }
+
+    // Fresh accumulator to hand to a search; it stays tied to the current build
+    public FacetCounts newCounts() {
+        return new FacetCounts(ordinals);
+    }
+
+    // Facet counts over a set of doc ids (null for all)
+    public FacetCounts count(BitSet docIds) {
+        FacetCounts counts = newCounts();
+        int docCount = counts.getDocCount();
+        for (int docId = docIds == null ? 0 : docIds.nextSetBit(0);
+             docId >= 0 && docId < docCount;
+             docId = docIds == null ? docId + 1 : docIds.nextSetBit(docId + 1)) {
+            counts.collect(docId);
+        }
+        return counts;
+    }
+
+    static final class Ordinals {
+        final int docCount;
+        final String[][] values;                   // [dimension][ordinal] -> value
+        final List<Map<String, Integer>> ordinalOf; // [dimension] value -> ordinal
+        final int[][] offsets;                     // [dimension][docId] -> start in docOrdinals
+        final int[][] docOrdinals;                 // [dimension] ordinals of all docs, back to back
+
+        Ordinals(int docCount, List<Map<String, Integer>> ordinalOf, int[][] offsets, int[][] docOrdinals) {
+            this.docCount = docCount;
+            this.ordinalOf = ordinalOf;
+            this.offsets = offsets;
+            this.docOrdinals = docOrdinals;
+            this.values = new String[DIMENSIONS.length][];
+            for (int d = 0; d < DIMENSIONS.length; d++) {
+                values[d] = ordinalOf.get(d).keySet().toArray(new String[0]);
+            }
+        }
+    }
+}
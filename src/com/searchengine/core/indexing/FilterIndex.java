@@ -0,0 +1,89 @@
+package com.searchengine.core.indexing;
+
+import com.searchengine.model.Product;
+import java.util.*;
+
+public class FilterIndex {
+    private volatile Map<String, BitSet> companyDocs;
+    private volatile Map<String, BitSet> featureDocs;
+    private volatile int docCount;
+    private final NumericIndex numericIndex; // Sorted price column for range lookups
+
+    public FilterIndex(NumericIndex numericIndex) {
+        this.companyDocs = Collections.emptyMap();
+        this.featureDocs = Collections.emptyMap();
+        this.numericIndex = numericIndex;
+    }
+
+    public void build(List<Product> products) {
+        Map<String, BitSet> companies = new TreeMap<>();
+        Map<String, BitSet> features = new TreeMap<>();
+
+        for (int docId = 0; docId < products.size(); docId++) {
+            Product product = products.get(docId);
+            if (product.getCategory() != null) {
+                companies.computeIfAbsent(product.getCategory(), k -> new BitSet()).set(docId);
+            }
+            for (String feature : product.getFeatures()) {
+                features.computeIfAbsent(feature, k -> new BitSet()).set(docId);
+            }
+        }
+
+        companyDocs = Collections.unmodifiableMap(companies);
+        featureDocs = Collections.unmodifiableMap(features);
+        docCount = products.size();
+    }
+
+    public Set<String> getCompanies() { return companyDocs.keySet(); }
+    public Set<String> getFeatures() { return featureDocs.keySet(); }
+    public int getDocCount() { return docCount; }
+
+    public BitSet all() {
+        BitSet all = new BitSet(docCount);
+        all.set(0, docCount);
+        return all;
+    }
+
+    public BitSet company(String company) {
+        BitSet docs = companyDocs.get(company);
+        return docs == null ? new BitSet() : (BitSet) docs.clone();
+    }
+
+    // Products having at least one of the features
+    public BitSet anyFeature(Collection<String> features) {
+        BitSet result = new BitSet(docCount);
+        for (String feature : features) {
+            BitSet docs = featureDocs.get(feature);
+            if (docs != null) result.or(docs);
+        }
+        return result;
+    }
+
+    // Products having every one of the features
+    public BitSet allFeatures(Collection<String> features) {
+        BitSet result = all();
+        for (String feature : features) {
+            BitSet docs = featureDocs.get(feature);
+            if (docs == null) return new BitSet();
+            result.and(docs);
+        }
+        return result;
+    }
+
+    // Products priced within [minPrice, maxPrice]
+    public BitSet priceRange(double minPrice, double maxPrice) {
+        return numericIndex.range(NumericIndex.PRICE, minPrice, true, maxPrice, true);
+    }
+
+    // Combined filter as used by the Filters panel: company AND price AND (any selected feature)
+    public BitSet match(String company, double minPrice, double maxPrice, Set<String> features) {
+        BitSet result = company == null || "All".equals(company) ? all() : company(company);
+        if (minPrice >= 0 || maxPrice < Double.MAX_VALUE) {
+            result.and(priceRange(minPrice, maxPrice));
+        }
+        if (features != null && !features.isEmpty()) {
+            result.and(anyFeature(features));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,21 @@
+package com.searchengine.core.indexing;
+
+import java.util.Arrays;
+
+class GrowableIntArray {
+    private int[] values = new int[4];
+    private int size;
+
+    public void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    public int size() { return size; }
+
+    public int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+}
@@ -21,6 +21,13 @@ class IndexEntry {
         }
     }
 
+    // Restores a posting read back from a snapshot
+    void putPosting(String productId, int termFrequency, double weight) {
+        if (postings.put(productId, new PostingList(termFrequency, weight)) == null) {
+            documentFrequency++;
+        }
+    }
+
     public Map<String, PostingList> getPostings() { return postings; }
     public int getDocumentFrequency() { return documentFrequency; }
 }
\ No newline at end of file
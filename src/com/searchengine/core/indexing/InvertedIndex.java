@@ -1,6 +1,10 @@
 package com.searchengine.core.indexing;
 
+import com.searchengine.core.patterns.PatternIndex;
+import com.searchengine.core.snapshot.SnapshotReader;
+import com.searchengine.core.snapshot.SnapshotWriter;
 import com.searchengine.model.Product;
+import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.time.Instant;
@@ -9,11 +13,25 @@ public class InvertedIndex {
     private final Map<String, IndexEntry> index;
     private final Map<String, ProductDocument> documents;
     private final Set<String> stopWords;
+    private final NGramIndex ngramIndex;
+    private final NumericIndex numericIndex;
+    private final FilterIndex filterIndex;
+    private final FacetIndex facetIndex;
+    private final PatternIndex patternIndex;
+    private volatile ProductColumns columns;
+    private volatile StoredFields storedFields; // Products by doc id, read only for hits being shown
 
     public InvertedIndex() {
         this.index = new ConcurrentHashMap<>();
         this.documents = new ConcurrentHashMap<>();
         this.stopWords = initializeStopWords();
+        this.ngramIndex = new NGramIndex();
+        this.numericIndex = new NumericIndex();
+        this.filterIndex = new FilterIndex(numericIndex);
+        this.facetIndex = new FacetIndex();
+        this.patternIndex = new PatternIndex();
+        this.columns = new ProductColumns(StoredFields.of(Collections.emptyList()));
+        this.storedFields = StoredFields.of(Collections.emptyList());
     }
 
     private Set<String> initializeStopWords() {
@@ -26,10 +44,47 @@ public class InvertedIndex {
     public void buildIndex(List<Product> products) {
         System.out.println("Building inverted index...");
 
-        for (Product product : products) {
-            indexProduct(product);
+        // Rebuild from scratch so repeated builds do not double count postings
+        index.clear();
+        documents.clear();
+
+        // An off-heap catalog is indexed through its lazy view rather than copied
+        List<Product> snapshot = products instanceof StoredFields ? products : List.copyOf(products);
+
+        for (int docId = 0; docId < snapshot.size(); docId++) {
+            indexProduct(snapshot.get(docId), docId);
         }
 
+        // Substring lookups used by the search panel
+        ngramIndex.build(snapshot);
+        buildColumns(snapshot);
+
+        printStatistics();
+    }
+
+    // Cheap single-pass structures, rebuilt both after indexing and after a snapshot restore
+    private void buildColumns(List<Product> snapshot) {
+        // Price, rating, review and stock columns for aggregations
+        StoredFields stored = StoredFields.of(snapshot);
+        ProductColumns built = new ProductColumns(stored);
+
+        // Typed power, channel and price columns for range queries, sharing the price array
+        numericIndex.build(snapshot, built);
+
+        // Facet bitsets for the Filters panel
+        filterIndex.build(snapshot);
+
+        // Per-doc facet ordinals so searches can count facets while scoring
+        facetIndex.build(snapshot);
+
+        // Pattern matches per doc, extracted once here instead of on every analysis
+        patternIndex.build(snapshot);
+
+        columns = built;
+        storedFields = stored;
+    }
+
+    private void printStatistics() {
         // Print statistics
         System.out.println("Index built successfully:");
         System.out.println("- Total unique terms: " + index.size());
@@ -46,9 +101,66 @@ public class InvertedIndex {
                         e.getValue().getDocumentFrequency() + " documents"));
     }
 
-    private void indexProduct(Product product) {
+    // Term postings (by doc id) and n-gram postings; documents and columns are derived on restore
+    public void writeSnapshot(SnapshotWriter out) throws IOException {
+        out.writeInt(index.size());
+        for (Map.Entry<String, IndexEntry> term : index.entrySet()) {
+            out.writeString(term.getKey());
+            out.writeInt(term.getValue().getPostings().size());
+            for (Map.Entry<String, PostingList> posting : term.getValue().getPostings().entrySet()) {
+                out.writeProductRef(posting.getKey());
+                out.writeInt(posting.getValue().getTermFrequency());
+                out.writeDouble(posting.getValue().getWeight());
+            }
+        }
+
+        Map<String, int[]> grams = ngramIndex.getPostings();
+        out.writeInt(grams.size());
+        for (Map.Entry<String, int[]> gram : grams.entrySet()) {
+            out.writeString(gram.getKey());
+            out.writeIntArray(gram.getValue());
+        }
+    }
+
+    public void readSnapshot(SnapshotReader in) {
+        System.out.println("Restoring inverted index...");
+        index.clear();
+        documents.clear();
+        List<Product> snapshot = List.copyOf(in.getProducts());
+
+        for (int docId = 0; docId < snapshot.size(); docId++) {
+            documents.put(snapshot.get(docId).getProductId(), new ProductDocument(docId));
+        }
+
+        int termCount = in.readInt();
+        for (int i = 0; i < termCount; i++) {
+            String term = in.readString();
+            IndexEntry entry = new IndexEntry();
+            int postingCount = in.readInt();
+            for (int j = 0; j < postingCount; j++) {
+                String productId = in.readProductRef();
+                int termFrequency = in.readInt();
+                double weight = in.readDouble();
+                entry.putPosting(productId, termFrequency, weight);
+                documents.get(productId).putTerm(term, weight, termFrequency);
+            }
+            index.put(term, entry);
+        }
+
+        int gramCount = in.readInt();
+        Map<String, int[]> grams = new HashMap<>(gramCount * 2);
+        for (int i = 0; i < gramCount; i++) {
+            grams.put(in.readString(), in.readIntArray());
+        }
+        ngramIndex.restore(snapshot, grams);
+        buildColumns(snapshot);
+
+        printStatistics();
+    }
+
+    private void indexProduct(Product product, int docId) {
         // Create document representation
-        ProductDocument doc = new ProductDocument(product);
+        ProductDocument doc = new ProductDocument(docId);
         documents.put(product.getProductId(), doc);
 
         // Index each field
@@ -96,6 +208,11 @@ public class InvertedIndex {
     }
 
     public SearchResult search(String query) {
+        return search(query, null);
+    }
+
+    // TF-IDF search; facet counts of the hits are collected into facets when it is not null
+    public SearchResult search(String query, FacetCounts facets) {
         // Tokenize query
         List<String> queryTerms = tokenize(query);
 
@@ -130,9 +247,12 @@ public class InvertedIndex {
         for (Map.Entry<String, Double> score : scores.entrySet()) {
             String productId = score.getKey();
             ProductDocument doc = documents.get(productId);
+            if (facets != null) {
+                facets.collect(doc.getDocId());
+            }
 
             results.add(new SearchResultItem(
-                    doc.getProduct(),
+                    doc.getDocId(),
                     score.getValue(),
                     matchedTerms.get(productId)
             ));
@@ -144,6 +264,114 @@ public class InvertedIndex {
         return new SearchResult(results, Instant.now());
     }
 
+    // Conjunctive substring search: every query term must occur in the name,
+    // category, a feature or a specification value of the product
+    public SearchResult searchSubstring(String query) {
+        return searchSubstring(query, null, null);
+    }
+
+    // Same as searchSubstring, restricted to the doc ids set in filter (null for no filter),
+    // collecting facet counts of the hits into facets when it is not null
+    public SearchResult searchSubstring(String query, BitSet filter, FacetCounts facets) {
+        Instant start = Instant.now();
+        String[] terms = query.toLowerCase().trim().split("\\s+");
+
+        // Narrow down with gram postings before verifying each term
+        int[] candidates = null;
+        for (String term : terms) {
+            int[] termDocs = ngramIndex.candidates(term);
+            if (termDocs == null) continue;
+            candidates = candidates == null ? termDocs : NGramIndex.intersect(candidates, termDocs);
+        }
+
+        Set<String> matchedTerms = Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(terms)));
+        List<SearchResultItem> results = new ArrayList<>();
+        int candidateCount = candidates == null ? ngramIndex.size() : candidates.length;
+
+        for (int i = 0; i < candidateCount; i++) {
+            int docId = candidates == null ? i : candidates[i];
+            if (filter != null && !filter.get(docId)) continue;
+            int score = 0;
+            for (String term : terms) {
+                int termScore = ngramIndex.score(docId, term);
+                if (termScore == 0) {
+                    score = 0;
+                    break;
+                }
+                score += termScore;
+            }
+            if (score > 0) {
+                if (facets != null) {
+                    facets.collect(docId);
+                }
+                results.add(new SearchResultItem(docId, score, matchedTerms));
+            }
+        }
+
+        // Scores are computed once per hit; the stable sort keeps catalog order for ties
+        results.sort((r1, r2) -> Double.compare(r2.getScore(), r1.getScore()));
+
+        return new SearchResult(results, start);
+    }
+
+    // Products whose name, a feature or a specification value contains the term as a substring,
+    // in catalog order. Gram postings narrow the docs down before the fields are checked.
+    public List<Product> getProductsForTerm(String term) {
+        String normalized = term.toLowerCase();
+        int[] candidates = ngramIndex.candidates(normalized);
+        int candidateCount = candidates == null ? ngramIndex.size() : candidates.length;
+
+        BitSet docIds = new BitSet();
+        for (int i = 0; i < candidateCount; i++) {
+            int docId = candidates == null ? i : candidates[i];
+            if (ngramIndex.containsOutsideCategory(docId, normalized)) {
+                docIds.set(docId);
+            }
+        }
+        return getProducts(docIds, null);
+    }
+
+    // Batch form of getProductsForTerm, keyed by the terms in the order given
+    public Map<String, List<Product>> getProductsForTerms(Collection<String> terms) {
+        Map<String, List<Product>> result = new LinkedHashMap<>();
+        for (String term : terms) {
+            result.computeIfAbsent(term, this::getProductsForTerm);
+        }
+        return result;
+    }
+
+    // Products for a set of doc ids (null for all), in catalog order, counting facets when facets is not null.
+    // Only the doc ids are collected; each product is hydrated when the returned list is read.
+    public List<Product> getProducts(BitSet docIds, FacetCounts facets) {
+        StoredFields stored = storedFields;
+        if (docIds == null) {
+            docIds = new BitSet(stored.size());
+            docIds.set(0, stored.size());
+        }
+        int[] hits = docIds.stream().filter(docId -> docId < stored.size()).toArray();
+        if (facets != null) {
+            for (int docId : hits) {
+                facets.collect(docId);
+            }
+        }
+        return new DocumentList(hits, stored);
+    }
+
+    // Products behind a page of hits, in the order of the hits, hydrated as they are read
+    public List<Product> getProducts(List<SearchResultItem> items) {
+        return new DocumentList(items.stream().mapToInt(SearchResultItem::getDocId).toArray(), storedFields);
+    }
+
+    public Product getProduct(int docId) {
+        return storedFields.document(docId);
+    }
+
+    public FilterIndex getFilterIndex() { return filterIndex; }
+    public NumericIndex getNumericIndex() { return numericIndex; }
+    public FacetIndex getFacetIndex() { return facetIndex; }
+    public PatternIndex getPatternIndex() { return patternIndex; }
+    public ProductColumns getColumns() { return columns; }
+
     private double calculateIDF(int documentFrequency) {
         return Math.log(1.0 + ((double) documents.size() / documentFrequency));
     }
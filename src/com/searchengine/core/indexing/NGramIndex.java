@@ -0,0 +1,147 @@
+package com.searchengine.core.indexing;
+
+import com.searchengine.model.Product;
+import java.util.*;
+
+class NGramIndex {
+    static final int GRAM_SIZE = 3;
+
+    // Field weights used for substring relevance
+    private static final int NAME_WEIGHT = 3;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int FEATURE_WEIGHT = 2;
+    private static final int SPEC_WEIGHT = 1;
+
+    private final Map<String, int[]> postings;
+    private String[][] fieldTexts;   // Lower-cased searchable fields per doc id
+    private int[][] fieldWeights;    // Weight of each field per doc id
+    private int[] categoryFields;    // Field index of the category per doc id, -1 if it has none
+
+    public NGramIndex() {
+        this.postings = new HashMap<>();
+        this.fieldTexts = new String[0][];
+        this.fieldWeights = new int[0][];
+        this.categoryFields = new int[0];
+    }
+
+    public void build(List<Product> products) {
+        buildFields(products);
+
+        Map<String, GrowableIntArray> building = new HashMap<>();
+        for (int docId = 0; docId < fieldTexts.length; docId++) {
+            // Each distinct gram is posted once per document, so postings stay sorted
+            Set<String> grams = new HashSet<>();
+            for (String field : fieldTexts[docId]) {
+                for (int i = 0; i + GRAM_SIZE <= field.length(); i++) {
+                    grams.add(field.substring(i, i + GRAM_SIZE));
+                }
+            }
+            for (String gram : grams) {
+                building.computeIfAbsent(gram, k -> new GrowableIntArray()).add(docId);
+            }
+        }
+
+        postings.clear();
+        building.forEach((gram, docs) -> postings.put(gram, docs.toArray()));
+    }
+
+    // Gram postings come from a snapshot; only the per-doc field texts are recomputed
+    void restore(List<Product> products, Map<String, int[]> restoredPostings) {
+        buildFields(products);
+        postings.clear();
+        postings.putAll(restoredPostings);
+    }
+
+    Map<String, int[]> getPostings() {
+        return postings;
+    }
+
+    private void buildFields(List<Product> products) {
+        String[][] texts = new String[products.size()][];
+        int[][] weights = new int[products.size()][];
+        int[] categories = new int[products.size()];
+
+        for (int docId = 0; docId < products.size(); docId++) {
+            Product product = products.get(docId);
+            List<String> fields = new ArrayList<>();
+            List<Integer> fieldWeightList = new ArrayList<>();
+
+            addField(product.getName(), NAME_WEIGHT, fields, fieldWeightList);
+            categories[docId] = product.getCategory() == null ? -1 : fields.size();
+            addField(product.getCategory(), CATEGORY_WEIGHT, fields, fieldWeightList);
+            for (String feature : product.getFeatures()) {
+                addField(feature, FEATURE_WEIGHT, fields, fieldWeightList);
+            }
+            for (String spec : product.getSpecifications().values()) {
+                addField(spec, SPEC_WEIGHT, fields, fieldWeightList);
+            }
+
+            texts[docId] = fields.toArray(new String[0]);
+            weights[docId] = fieldWeightList.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        fieldTexts = texts;
+        fieldWeights = weights;
+        categoryFields = categories;
+    }
+
+    private void addField(String text, int weight, List<String> fields, List<Integer> weights) {
+        if (text == null) return;
+        fields.add(text.toLowerCase());
+        weights.add(weight);
+    }
+
+    public int size() {
+        return fieldTexts.length;
+    }
+
+    // Sorted doc ids that may contain the term, or null when the term is too short to filter on
+    public int[] candidates(String term) {
+        if (term.length() < GRAM_SIZE) return null;
+
+        int[] result = null;
+        for (int i = 0; i + GRAM_SIZE <= term.length(); i++) {
+            int[] docs = postings.get(term.substring(i, i + GRAM_SIZE));
+            if (docs == null) return new int[0];
+            result = result == null ? docs : intersect(result, docs);
+            if (result.length == 0) break;
+        }
+        return result;
+    }
+
+    // Substring relevance of a term for a doc; zero means the term does not occur
+    public int score(int docId, String term) {
+        String[] texts = fieldTexts[docId];
+        int[] weights = fieldWeights[docId];
+        int score = 0;
+        for (int i = 0; i < texts.length; i++) {
+            if (texts[i].contains(term)) score += weights[i];
+        }
+        return score;
+    }
+
+    // Whether the term occurs in the name, a feature or a specification value of a doc
+    public boolean containsOutsideCategory(int docId, String term) {
+        String[] texts = fieldTexts[docId];
+        int category = categoryFields[docId];
+        for (int i = 0; i < texts.length; i++) {
+            if (i != category && texts[i].contains(term)) return true;
+        }
+        return false;
+    }
+
+    static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) i++;
+            else if (a[i] > b[j]) j++;
+            else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+}
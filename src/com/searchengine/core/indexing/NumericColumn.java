@@ -0,0 +1,56 @@
+package com.searchengine.core.indexing;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+class NumericColumn {
+    private final double[] sortedValues; // Ascending, missing values left out
+    private final int[] sortedDocs;      // Doc ids in the same order as sortedValues
+
+    // Values are indexed by doc id; NaN marks a missing value
+    NumericColumn(double[] values) {
+        this.sortedDocs = IntStream.range(0, values.length)
+                .filter(docId -> !Double.isNaN(values[docId]))
+                .boxed()
+                .sorted(Comparator.comparingDouble(docId -> values[docId]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        this.sortedValues = new double[sortedDocs.length];
+        for (int i = 0; i < sortedDocs.length; i++) {
+            sortedValues[i] = values[sortedDocs[i]];
+        }
+    }
+
+    // Docs whose value lies between min and max; a binary search for each bound, then a scan of the hits
+    BitSet range(double min, boolean minInclusive, double max, boolean maxInclusive) {
+        int from = minInclusive ? lowerBound(min) : upperBound(min);
+        int to = maxInclusive ? upperBound(max) : lowerBound(max);
+        BitSet result = new BitSet();
+        for (int i = from; i < to; i++) {
+            result.set(sortedDocs[i]);
+        }
+        return result;
+    }
+
+    // First position whose value is >= key
+    private int lowerBound(double key) {
+        int low = 0, high = sortedValues.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedValues[mid] < key) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    // First position whose value is > key
+    private int upperBound(double key) {
+        int low = 0, high = sortedValues.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedValues[mid] <= key) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+}
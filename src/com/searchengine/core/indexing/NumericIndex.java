@@ -0,0 +1,142 @@
+package com.searchengine.core.indexing;
+
+import com.searchengine.model.Product;
+import java.util.*;
+
+public final class NumericIndex {
+    public static final String POWER = "power";
+    public static final String CHANNELS = "channels";
+    public static final String PRICE = "price";
+
+    private volatile Columns columns;
+
+    public NumericIndex() {
+        build(Collections.emptyList(), new ProductColumns(StoredFields.of(Collections.emptyList())));
+    }
+
+    // Parses the free-text specs once into typed columns and sorts each of them.
+    // Prices are not copied: they are sorted straight from the product columns.
+    public void build(List<Product> products, ProductColumns productColumns) {
+        int docCount = products.size();
+        int[] watts = new int[docCount];
+        float[] channels = new float[docCount];
+
+        for (int docId = 0; docId < docCount; docId++) {
+            Product product = products.get(docId);
+            watts[docId] = parseWatts(product.getSpecifications().get("Power Output"));
+            channels[docId] = parseChannels(product.getSpecifications().get("Speaker Configuration"));
+        }
+
+        columns = new Columns(watts, channels, productColumns.prices);
+    }
+
+    // Watts for a doc, -1 when unknown
+    public int getWatts(int docId) { return columns.watts[docId]; }
+
+    // Main channel count such as 5.1 for a doc, NaN when unknown
+    public float getChannels(int docId) { return columns.channels[docId]; }
+
+    public double getPrice(int docId) { return columns.prices[docId]; }
+
+    public BitSet range(String attribute, double min, boolean minInclusive, double max, boolean maxInclusive) {
+        Columns current = columns;
+        switch (attribute) {
+            case POWER:
+                return current.powerIndex.range(min, minInclusive, max, maxInclusive);
+            case CHANNELS:
+                // Compare at float precision so channels>=5.1 includes the stored 5.1f
+                return current.channelsIndex.range((float) min, minInclusive, (float) max, maxInclusive);
+            case PRICE:
+                return current.priceIndex.range(min, minInclusive, max, maxInclusive);
+            default:
+                throw new IllegalArgumentException("Unknown numeric attribute: " + attribute);
+        }
+    }
+
+    // Docs satisfying every condition of the query
+    public BitSet match(RangeQuery query) {
+        BitSet result = null;
+        for (RangeQuery.Condition condition : query.getConditions()) {
+            BitSet docs = match(condition);
+            if (result == null) result = docs;
+            else result.and(docs);
+        }
+        return result == null ? new BitSet() : result;
+    }
+
+    private BitSet match(RangeQuery.Condition condition) {
+        double value = condition.getValue();
+        double lowest = Double.NEGATIVE_INFINITY;
+        double highest = Double.POSITIVE_INFINITY;
+        switch (condition.getOperator()) {
+            case ">=": return range(condition.getAttribute(), value, true, highest, true);
+            case ">":  return range(condition.getAttribute(), value, false, highest, true);
+            case "<=": return range(condition.getAttribute(), lowest, true, value, true);
+            case "<":  return range(condition.getAttribute(), lowest, true, value, false);
+            case "=":  return range(condition.getAttribute(), value, true, value, true);
+            default:
+                throw new IllegalArgumentException("Unknown operator: " + condition.getOperator());
+        }
+    }
+
+    // "300W" -> 300; first run of digits, -1 if there is none
+    static int parseWatts(String text) {
+        if (text == null) return -1;
+        int value = -1;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                value = (value < 0 ? 0 : value * 10) + (c - '0');
+            } else if (value >= 0 && c != ',') {
+                break;
+            }
+        }
+        return value;
+    }
+
+    // "5.1.2" -> 5.1f; leading number with at most one decimal part, NaN if there is none
+    static float parseChannels(String text) {
+        if (text == null) return Float.NaN;
+        int start = 0;
+        while (start < text.length() && !Character.isDigit(text.charAt(start))) start++;
+        int end = start;
+        boolean seenDot = false;
+        while (end < text.length()) {
+            char c = text.charAt(end);
+            if (Character.isDigit(c)) {
+                end++;
+            } else if (c == '.' && !seenDot && end + 1 < text.length() && Character.isDigit(text.charAt(end + 1))) {
+                seenDot = true;
+                end++;
+            } else {
+                break;
+            }
+        }
+        return start == end ? Float.NaN : Float.parseFloat(text.substring(start, end));
+    }
+
+    private static final class Columns {
+        final int[] watts;
+        final float[] channels;
+        final double[] prices;
+        final NumericColumn powerIndex;
+        final NumericColumn channelsIndex;
+        final NumericColumn priceIndex;
+
+        Columns(int[] watts, float[] channels, double[] prices) {
+            this.watts = watts;
+            this.channels = channels;
+            this.prices = prices;
+
+            double[] wattValues = new double[watts.length];
+            double[] channelValues = new double[channels.length];
+            for (int docId = 0; docId < watts.length; docId++) {
+                wattValues[docId] = watts[docId] < 0 ? Double.NaN : watts[docId];
+                channelValues[docId] = channels[docId];
+            }
+            this.powerIndex = new NumericColumn(wattValues);
+            this.channelsIndex = new NumericColumn(channelValues);
+            this.priceIndex = new NumericColumn(prices);
+        }
+    }
+}
@@ -9,6 +9,11 @@ class PostingList {
         this.weight = 0.0;
     }
 
+    PostingList(int termFrequency, double weight) {
+        this.termFrequency = termFrequency;
+        this.weight = weight;
+    }
+
     public void addOccurrence(double weight) {
         termFrequency++;
         this.weight += weight;
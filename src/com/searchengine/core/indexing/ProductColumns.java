@@ -0,0 +1,83 @@
+package com.searchengine.core.indexing;
+
+import java.util.*;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+// Struct-of-arrays copy of the hot product fields, keyed by doc id. Aggregations and
+// filters loop over the primitive arrays instead of chasing Product references.
+// Price ranges are looked up in NumericIndex's sorted column over this same price array, and
+// category and type counts come from the FacetIndex ordinals, so neither is kept twice.
+public class ProductColumns {
+    private final int docCount;
+    final double[] prices;
+    private final float[] ratings;
+    private final int[] reviewCounts;
+    private final BitSet inStock;
+
+    // Filled field by field, so an off-heap store is read from its columns without building products
+    ProductColumns(StoredFields fields) {
+        this.docCount = fields.size();
+        this.prices = new double[docCount];
+        this.ratings = new float[docCount];
+        this.reviewCounts = new int[docCount];
+        this.inStock = new BitSet(docCount);
+
+        for (int docId = 0; docId < docCount; docId++) {
+            prices[docId] = fields.price(docId);
+            ratings[docId] = fields.rating(docId);
+            reviewCounts[docId] = fields.reviewCount(docId);
+            if (fields.inStock(docId)) inStock.set(docId);
+        }
+    }
+
+    public int getDocCount() { return docCount; }
+    public double getPrice(int docId) { return prices[docId]; }
+    public float getRating(int docId) { return ratings[docId]; }
+    public int getReviewCount(int docId) { return reviewCounts[docId]; }
+    public boolean isInStock(int docId) { return inStock.get(docId); }
+
+    // Price summary over a set of doc ids (null for all)
+    public DoubleSummaryStatistics priceStatistics(BitSet docIds) {
+        return docs(docIds).mapToDouble(docId -> prices[docId]).summaryStatistics();
+    }
+
+    // Mean rating of the rated products among the doc ids (null for all), 0 when none is rated
+    public double averageRating(BitSet docIds) {
+        return docs(docIds)
+                .filter(docId -> reviewCounts[docId] > 0)
+                .mapToDouble(docId -> ratings[docId])
+                .average()
+                .orElse(0);
+    }
+
+    public long totalReviews(BitSet docIds) {
+        return docs(docIds).mapToLong(docId -> reviewCounts[docId]).sum();
+    }
+
+    public BitSet inStock() {
+        return (BitSet) inStock.clone();
+    }
+
+    public BitSet ratingAtLeast(float minRating) {
+        return scan(docId -> ratings[docId] >= minRating);
+    }
+
+    // Evaluates the predicate 64 docs at a time; every worker writes its own words, so no locking
+    private BitSet scan(IntPredicate predicate) {
+        long[] words = new long[(docCount + 63) >>> 6];
+        IntStream.range(0, words.length).parallel().forEach(word -> {
+            long bits = 0;
+            int end = Math.min(docCount, (word + 1) << 6);
+            for (int docId = word << 6; docId < end; docId++) {
+                if (predicate.test(docId)) bits |= 1L << docId;
+            }
+            words[word] = bits;
+        });
+        return BitSet.valueOf(words);
+    }
+
+    private IntStream docs(BitSet docIds) {
+        return (docIds == null ? IntStream.range(0, docCount) : docIds.stream()).parallel();
+    }
+}
@@ -1,15 +1,14 @@
 package com.searchengine.core.indexing;
 
-import com.searchengine.model.Product;
 import java.util.*;
 
 class ProductDocument {
-    private final Product product;
+    private final int docId;
     private final Map<String, Double> termWeights;
     private final Map<String, Integer> termFrequencies;
 
-    public ProductDocument(Product product) {
-        this.product = product;
+    public ProductDocument(int docId) {
+        this.docId = docId;
         this.termWeights = new HashMap<>();
         this.termFrequencies = new HashMap<>();
     }
@@ -19,7 +18,13 @@ class ProductDocument {
         termFrequencies.merge(term, 1, Integer::sum);
     }
 
-    public Product getProduct() { return product; }
+    // Restores the totals addTerm accumulated for a term
+    void putTerm(String term, double weight, int frequency) {
+        termWeights.put(term, weight);
+        termFrequencies.put(term, frequency);
+    }
+
+    public int getDocId() { return docId; }
     public Map<String, Double> getTermWeights() { return termWeights; }
     public Map<String, Integer> getTermFrequencies() { return termFrequencies; }
 }
\ No newline at end of file
@@ -0,0 +1,63 @@
+package com.searchengine.core.indexing;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Splits a query such as "soundbar power>=300 channels>=5.1 price<800"
+// into numeric range conditions and the remaining full-text part
+public class RangeQuery {
+    private static final Pattern CONDITION = Pattern.compile(
+            "(power|channels|price)(>=|<=|>|<|=)(\\d+(?:\\.\\d+)?)w?", Pattern.CASE_INSENSITIVE);
+
+    private final List<Condition> conditions;
+    private final String text;
+
+    private RangeQuery(List<Condition> conditions, String text) {
+        this.conditions = conditions;
+        this.text = text;
+    }
+
+    public static RangeQuery parse(String query) {
+        List<Condition> conditions = new ArrayList<>();
+        StringBuilder text = new StringBuilder();
+
+        for (String token : query.trim().split("\\s+")) {
+            Matcher matcher = CONDITION.matcher(token);
+            if (matcher.matches()) {
+                conditions.add(new Condition(matcher.group(1).toLowerCase(), matcher.group(2),
+                        Double.parseDouble(matcher.group(3))));
+            } else if (!token.isEmpty()) {
+                if (text.length() > 0) text.append(' ');
+                text.append(token);
+            }
+        }
+
+        return new RangeQuery(conditions, text.toString());
+    }
+
+    public List<Condition> getConditions() { return conditions; }
+    public String getText() { return text; }
+    public boolean hasConditions() { return !conditions.isEmpty(); }
+
+    public static class Condition {
+        private final String attribute;
+        private final String operator;
+        private final double value;
+
+        public Condition(String attribute, String operator, double value) {
+            this.attribute = attribute;
+            this.operator = operator;
+            this.value = value;
+        }
+
+        public String getAttribute() { return attribute; }
+        public String getOperator() { return operator; }
+        public double getValue() { return value; }
+
+        @Override
+        public String toString() {
+            return attribute + operator + value;
+        }
+    }
+}
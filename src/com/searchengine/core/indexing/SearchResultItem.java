@@ -1,20 +1,20 @@
 package com.searchengine.core.indexing;
 
-import com.searchengine.model.Product;
 import java.util.Set;
 
+// A hit is a doc id and its score; the product itself is hydrated from the stored fields on demand
 public class SearchResultItem {
-    private final Product product;
+    private final int docId;
     private final double score;
     private final Set<String> matchedTerms;
 
-    public SearchResultItem(Product product, double score, Set<String> matchedTerms) {
-        this.product = product;
+    public SearchResultItem(int docId, double score, Set<String> matchedTerms) {
+        this.docId = docId;
         this.score = score;
         this.matchedTerms = matchedTerms;
     }
 
-    public Product getProduct() { return product; }
+    public int getDocId() { return docId; }
     public double getScore() { return score; }
     public Set<String> getMatchedTerms() { return matchedTerms; }
 }
\ No newline at end of file
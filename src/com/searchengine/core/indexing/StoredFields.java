@@ -0,0 +1,37 @@
+package com.searchengine.core.indexing;
+
+import com.searchengine.model.Product;
+import java.util.*;
+
+// Reads a product back by doc id. The index keeps only doc ids and scores and
+// hydrates products through this reader for the hits that are actually shown.
+public interface StoredFields {
+    int size();
+
+    Product document(int docId);
+
+    // Single fields by doc id. These read the whole product; a columnar store overrides them to
+    // read its columns without building one.
+    default double price(int docId) { return document(docId).getPrice(); }
+    default float rating(int docId) { return (float) document(docId).getRating(); }
+    default int reviewCount(int docId) { return document(docId).getReviewCount(); }
+    default boolean inStock(int docId) { return document(docId).isInStock(); }
+
+    // Stored fields over an in-memory product list; a list that already is a reader is used as is
+    static StoredFields of(List<Product> products) {
+        if (products instanceof StoredFields) return (StoredFields) products;
+
+        List<Product> snapshot = List.copyOf(products);
+        return new StoredFields() {
+            @Override
+            public int size() {
+                return snapshot.size();
+            }
+
+            @Override
+            public Product document(int docId) {
+                return snapshot.get(docId);
+            }
+        };
+    }
+}
@@ -10,8 +10,10 @@ import com.google.gson.GsonBuilder;
 import java.io.*;
 import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 public class HTMLParser {
     private final Gson gson;
@@ -45,57 +47,191 @@ public class HTMLParser {
         put("Ethernet", Arrays.asList("Ethernet", "ethernet")); 
     }};
 
+    // Files read ahead or parsed results waiting, per worker; bounds how many pages sit in memory
+    private static final int QUEUE_SLOTS_PER_WORKER = 2;
+    private static final long WORKER_CHECK_MILLIS = 1000;
+
+    private final int workerCount;
+
+    // A page read by the reader stage; index is its position in the directory walk
+    private static final class HtmlFile {
+        static final HtmlFile END = new HtmlFile(-1, null, null);
+
+        final int index;
+        final Path path;
+        final byte[] content;
+
+        HtmlFile(int index, Path path, byte[] content) {
+            this.index = index;
+            this.path = path;
+            this.content = content;
+        }
+    }
+
+    // Products a worker extracted from one page; company is null when none was detected
+    private static final class ParsedFile {
+        static final ParsedFile END = new ParsedFile(-1, null, Collections.emptyList());
+
+        final int index;
+        final String company;
+        final List<Map<String, Object>> products;
+
+        ParsedFile(int index, String company, List<Map<String, Object>> products) {
+            this.index = index;
+            this.company = company;
+            this.products = products;
+        }
+    }
+
     public HTMLParser() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public HTMLParser(int workerCount) {
         this.gson = new GsonBuilder().setPrettyPrinting().create();
+        this.workerCount = Math.max(1, workerCount);
     }
 
-    @SuppressWarnings("unchecked")
+    // Pipeline of one reader thread, workerCount Jsoup parsers and this thread merging products
+    // per company. Bounded queues between the stages hold the reader back when parsing lags, so
+    // only a few pages are in memory at a time.
     public void parseHtmlFiles(String htmlDirectory, String outputJsonPath) {
+        Map<String, Map<String, Object>> result = new HashMap<>();
+        result.put("company", new HashMap<>());
+        Map<String, Object> companies = result.get("company");
+
+        BlockingQueue<HtmlFile> files = new ArrayBlockingQueue<>(workerCount * QUEUE_SLOTS_PER_WORKER);
+        BlockingQueue<ParsedFile> parsed = new ArrayBlockingQueue<>(workerCount * QUEUE_SLOTS_PER_WORKER);
+        ExecutorService executor = Executors.newFixedThreadPool(workerCount + 1);
         try {
-            Map<String, Map<String, Object>> result = new HashMap<>();
-            result.put("company", new HashMap<>());
-            Map<String, Object> companies = result.get("company");
-
-            Files.walk(Paths.get(htmlDirectory))
-                .filter(Files::isRegularFile)
-                .filter(path -> path.toString().endsWith(".html"))
-                .forEach(path -> {
-                    try {
-                        System.out.println("Processing: " + path.getFileName());
-                        Document doc = Jsoup.parse(path.toFile(), "UTF-8");
-                        String company = detectCompany(path.getFileName().toString(), doc);
-                        
-                        if (company != null) {
-                            List<Map<String, Object>> products = parseProducts(doc, company);
-                            if (!products.isEmpty()) {
-                                Map<String, Object> companyData;
-                                if (companies.containsKey(company)) {
-                                    companyData = (Map<String, Object>) companies.get(company);
-                                } else {
-                                    companyData = new HashMap<>();
-                                    companies.put(company, companyData);
-                                }
-                                
-                                List<Map<String, Object>> existingProducts = 
-                                    (List<Map<String, Object>>) companyData.computeIfAbsent("products", k -> new ArrayList<>());
-                                existingProducts.addAll(products);
-                            }
-                        }
-                    } catch (IOException e) {
-                        System.err.println("Error processing file: " + path);
-                        e.printStackTrace();
-                    }
-                });
+            Future<?> reader = executor.submit(() -> readFiles(Paths.get(htmlDirectory), files));
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < workerCount; i++) {
+                workers.add(executor.submit(() -> parseFiles(files, parsed)));
+            }
+
+            // Merge in walk order whichever worker finishes first, so output matches a sequential run
+            Map<Integer, ParsedFile> pending = new HashMap<>();
+            int next = 0;
+            for (int finished = 0; finished < workerCount; ) {
+                ParsedFile file = parsed.poll(WORKER_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+                if (file == null) {
+                    // Every worker gone with its end marker missing: stop waiting, the futures say why
+                    if (parsed.isEmpty() && workers.stream().allMatch(Future::isDone)) break;
+                    continue;
+                }
+                if (file == ParsedFile.END) {
+                    finished++;
+                    continue;
+                }
+                pending.put(file.index, file);
+                for (ParsedFile ready = pending.remove(next); ready != null; ready = pending.remove(next)) {
+                    mergeProducts(companies, ready);
+                    next++;
+                }
+            }
+            // Workers first: when one died, the reader may be stuck on a full queue, and the
+            // failure ends the run through shutdownNow, which interrupts it
+            for (Future<?> worker : workers) {
+                worker.get(); // A worker killed by an Error fails the run instead of dropping its page
+            }
+            reader.get();
 
             Files.writeString(Paths.get(outputJsonPath), gson.toJson(result));
             System.out.println("JSON output written to: " + outputJsonPath);
 
-        } catch (IOException e) {
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Interrupted while parsing " + htmlDirectory);
+        } catch (ExecutionException | IOException e) {
             System.err.println("Error in file processing");
             e.printStackTrace();
+        } finally {
+            executor.shutdownNow();
         }
     }
 
+    // Reader stage: loads each page into memory, blocking while the parsers are behind
+    private Void readFiles(Path directory, BlockingQueue<HtmlFile> files) throws IOException, InterruptedException {
+        boolean cancelled = false;
+        try (Stream<Path> paths = Files.walk(directory)) {
+            Iterator<Path> htmlFiles = paths
+                    .filter(Files::isRegularFile)
+                    .filter(path -> path.toString().endsWith(".html"))
+                    .iterator();
+            int index = 0;
+            while (htmlFiles.hasNext()) {
+                Path path = htmlFiles.next();
+                try {
+                    byte[] content = Files.readAllBytes(path);
+                    files.put(new HtmlFile(index++, path, content));
+                } catch (IOException e) {
+                    System.err.println("Error processing file: " + path);
+                    e.printStackTrace();
+                }
+            }
+        } catch (InterruptedException e) {
+            cancelled = true;
+            throw e;
+        } finally {
+            // One end marker per worker, even when the walk failed; none once the run is cancelled,
+            // as no worker may be left to take them
+            for (int i = 0; i < workerCount && !cancelled; i++) {
+                files.put(HtmlFile.END);
+            }
+        }
+        return null;
+    }
+
+    // Parser stage: every page read yields exactly one result, empty if it could not be parsed
+    private Void parseFiles(BlockingQueue<HtmlFile> files, BlockingQueue<ParsedFile> parsed) throws InterruptedException {
+        try {
+            for (HtmlFile file = files.take(); file != HtmlFile.END; file = files.take()) {
+                parsed.put(parseFile(file));
+            }
+        } finally {
+            // Also sent when an Error escapes parseFile, so the merger is never left waiting
+            parsed.put(ParsedFile.END);
+        }
+        return null;
+    }
+
+    private ParsedFile parseFile(HtmlFile file) {
+        try {
+            System.out.println("Processing: " + file.path.getFileName());
+            Document doc = Jsoup.parse(new ByteArrayInputStream(file.content), "UTF-8",
+                    file.path.toFile().getAbsolutePath());
+            String company = detectCompany(file.path.getFileName().toString(), doc);
+
+            if (company != null) {
+                return new ParsedFile(file.index, company, parseProducts(doc, company));
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error processing file: " + file.path);
+            e.printStackTrace();
+        }
+        return new ParsedFile(file.index, null, Collections.emptyList());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void mergeProducts(Map<String, Object> companies, ParsedFile file) {
+        if (file.company == null || file.products.isEmpty()) {
+            return;
+        }
+
+        Map<String, Object> companyData;
+        if (companies.containsKey(file.company)) {
+            companyData = (Map<String, Object>) companies.get(file.company);
+        } else {
+            companyData = new HashMap<>();
+            companies.put(file.company, companyData);
+        }
+
+        List<Map<String, Object>> existingProducts =
+            (List<Map<String, Object>>) companyData.computeIfAbsent("products", k -> new ArrayList<>());
+        existingProducts.addAll(file.products);
+    }
+
 
     private String detectCompany(String filename, Document doc) {
         String content = doc.text().toLowerCase();
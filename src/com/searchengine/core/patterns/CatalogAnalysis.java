@@ -0,0 +1,99 @@
+package com.searchengine.core.patterns;
+
+import com.searchengine.core.validation.DataValidator;
+import com.searchengine.core.validation.ValidationResult;
+import com.searchengine.model.Product;
+import java.util.*;
+
+// Result of one batch pass over a catalog: the feature patterns each product shows and how it
+// fared in validation, held per doc id (position in the catalog list).
+public class CatalogAnalysis {
+    static final int INVALID = 1 << 31; // Flag bit: rejected by PatternMatcher.validateProduct
+
+    private final List<Product> products;
+    private final String[] featureNames;
+    private final int[] flags;               // [doc id] -> bit per feature name, plus INVALID
+    private final DataValidator validator;   // Null if not validated
+    private final int[] codes;               // [doc id] -> DataValidator error codes, null if not validated
+
+    CatalogAnalysis(List<Product> products, String[] featureNames, int[] flags, DataValidator validator, int[] codes) {
+        this.products = products;
+        this.featureNames = featureNames;
+        this.flags = flags;
+        this.validator = validator;
+        this.codes = codes;
+    }
+
+    public int size() {
+        return flags.length;
+    }
+
+    // Feature name -> products showing it in their features or description, in catalog order;
+    // features no product shows are left out
+    public Map<String, List<Product>> getProductsByFeature() {
+        Map<String, List<Product>> byFeature = new HashMap<>();
+        for (int feature = 0; feature < featureNames.length; feature++) {
+            List<Product> matching = productsWith(1 << feature);
+            if (!matching.isEmpty()) {
+                byFeature.put(featureNames[feature], matching);
+            }
+        }
+        return byFeature;
+    }
+
+    public List<Product> getInvalidProducts() {
+        return productsWith(INVALID);
+    }
+
+    // Messages are only built here, on request, and only for products that failed a check
+    public ValidationResult getValidationResult(int docId) {
+        return codes == null ? null : validator.validateProduct(products.get(docId));
+    }
+
+    public int getErrorCode(int docId) {
+        return codes == null ? 0 : codes[docId];
+    }
+
+    public List<Product> getProductsWithErrors() {
+        List<Product> withErrors = new ArrayList<>();
+        if (codes == null) return withErrors;
+        for (int docId = 0; docId < codes.length; docId++) {
+            if (DataValidator.hasErrors(codes[docId])) {
+                withErrors.add(products.get(docId));
+            }
+        }
+        return withErrors;
+    }
+
+    // Each error code bit stands for exactly one error message
+    public int getErrorCount() {
+        int count = 0;
+        if (codes == null) return count;
+        for (int code : codes) {
+            count += Integer.bitCount(code & ~DataValidator.INVALID_FEATURE);
+        }
+        return count;
+    }
+
+    // One warning per malformed feature, so only flagged products are looked at again
+    public int getWarningCount() {
+        int count = 0;
+        if (codes == null) return count;
+        for (int docId = 0; docId < codes.length; docId++) {
+            if ((codes[docId] & DataValidator.INVALID_FEATURE) != 0) {
+                count += validator.validateProduct(products.get(docId)).getWarnings().size();
+            }
+        }
+        return count;
+    }
+
+    private List<Product> productsWith(int flag) {
+        List<Product> matching = new ArrayList<>();
+        for (int docId = 0; docId < flags.length; docId++) {
+            if ((flags[docId] & flag) != 0) {
+                matching.add(products.get(docId));
+            }
+        }
+        return matching;
+    }
+}
@@ -0,0 +1,90 @@
+package com.searchengine.core.patterns;
+
+import com.searchengine.core.validation.DataValidator;
+import com.searchengine.model.Product;
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Splits a doc id range in halves on a ForkJoinPool until chunks are small, then reads each
+// product of a chunk once and runs every feature pattern and validation on it. A chunk writes
+// only the array slots of its own doc ids, so results need no locks and no merge step; joining
+// the tasks publishes them to the caller.
+class CatalogScan extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    static final int CHUNK_SIZE = 256;
+
+    // A scan only lives for one analyzeCatalog call and is never serialized
+    private final transient List<Product> products;
+    private final Pattern[] featurePatterns;
+    private final transient PatternMatcher matcher;   // Runs validateProduct; null to skip it
+    private final transient DataValidator validator;  // Null to skip DataValidator
+    private final int[] flags;
+    private final int[] codes;              // DataValidator error codes per doc id
+    private final int start;
+    private final int end;
+
+    CatalogScan(List<Product> products, Pattern[] featurePatterns, PatternMatcher matcher,
+                DataValidator validator, int[] flags, int[] codes, int start, int end) {
+        this.products = products;
+        this.featurePatterns = featurePatterns;
+        this.matcher = matcher;
+        this.validator = validator;
+        this.flags = flags;
+        this.codes = codes;
+        this.start = start;
+        this.end = end;
+    }
+
+    @Override
+    protected void compute() {
+        if (end - start <= CHUNK_SIZE) {
+            scanChunk();
+            return;
+        }
+        int middle = (start + end) >>> 1;
+        invokeAll(
+                new CatalogScan(products, featurePatterns, matcher, validator, flags, codes, start, middle),
+                new CatalogScan(products, featurePatterns, matcher, validator, flags, codes, middle, end)
+        );
+    }
+
+    private void scanChunk() {
+        // One matcher per pattern for the whole chunk, reset for every text
+        Matcher[] matchers = new Matcher[featurePatterns.length];
+        for (int feature = 0; feature < matchers.length; feature++) {
+            matchers[feature] = featurePatterns[feature].matcher("");
+        }
+
+        for (int docId = start; docId < end; docId++) {
+            Product product = products.get(docId);
+            if (product == null) continue;
+
+            int productFlags = 0;
+            for (int feature = 0; feature < matchers.length; feature++) {
+                if (hasFeature(product, matchers[feature])) {
+                    productFlags |= 1 << feature;
+                }
+            }
+            if (matcher != null && !matcher.validateProduct(product)) {
+                productFlags |= CatalogAnalysis.INVALID;
+            }
+            flags[docId] = productFlags;
+
+            if (validator != null) {
+                codes[docId] = validator.validate(product);
+            }
+        }
+    }
+
+    private static boolean hasFeature(Product product, Matcher matcher) {
+        // Check features
+        for (String feature : product.getFeatures()) {
+            if (matcher.reset(feature).find()) return true;
+        }
+
+        // Check description
+        return product.getDescription() != null && matcher.reset(product.getDescription()).find();
+    }
+}
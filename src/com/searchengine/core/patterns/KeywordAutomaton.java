@@ -0,0 +1,108 @@
+package com.searchengine.core.patterns;
+
+import java.util.*;
+
+// Aho-Corasick automaton over ASCII keywords, matched case-insensitively like the regex flag.
+// The goto and failure links are folded into one transition table, so feeding a character is a
+// single array lookup and every keyword occurrence is reported in one left-to-right pass.
+class KeywordAutomaton {
+    private static final int ALPHABET = 128;
+
+    private final int[][] transitions; // [state][lower-cased char] -> state
+    private final int[] output;        // [state] -> keyword ending here, -1 if none
+    private final int[] outputLink;    // [state] -> next state on the suffix chain with an output, -1 if none
+    private final String[] keywords;
+
+    KeywordAutomaton(String... keywords) {
+        this.keywords = keywords.clone();
+
+        List<int[]> gotoTable = new ArrayList<>();
+        List<Integer> outputs = new ArrayList<>();
+        gotoTable.add(newState());
+        outputs.add(-1);
+        for (int k = 0; k < keywords.length; k++) {
+            int state = 0;
+            for (char c : keywords[k].toCharArray()) {
+                int ch = lower(c);
+                if (ch >= ALPHABET) throw new IllegalArgumentException("Keyword is not ASCII: " + keywords[k]);
+                if (gotoTable.get(state)[ch] < 0) {
+                    gotoTable.get(state)[ch] = gotoTable.size();
+                    gotoTable.add(newState());
+                    outputs.add(-1);
+                }
+                state = gotoTable.get(state)[ch];
+            }
+            outputs.set(state, k);
+        }
+
+        int states = gotoTable.size();
+        this.transitions = gotoTable.toArray(new int[0][]);
+        this.output = new int[states];
+        this.outputLink = new int[states];
+        int[] failure = new int[states];
+        for (int s = 0; s < states; s++) {
+            output[s] = outputs.get(s);
+        }
+
+        // Breadth-first, so a state's failure target is complete before the state itself
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        outputLink[0] = -1;
+        for (int ch = 0; ch < ALPHABET; ch++) {
+            int next = transitions[0][ch];
+            if (next < 0) {
+                transitions[0][ch] = 0;
+            } else {
+                failure[next] = 0;
+                outputLink[next] = -1;
+                queue.add(next);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (int ch = 0; ch < ALPHABET; ch++) {
+                int next = transitions[state][ch];
+                if (next < 0) {
+                    transitions[state][ch] = transitions[failure[state]][ch];
+                } else {
+                    int fail = transitions[failure[state]][ch];
+                    failure[next] = fail;
+                    outputLink[next] = output[fail] >= 0 ? fail : outputLink[fail];
+                    queue.add(next);
+                }
+            }
+        }
+    }
+
+    int start() {
+        return 0;
+    }
+
+    int next(int state, char c) {
+        int ch = lower(c);
+        return ch < ALPHABET ? transitions[state][ch] : 0;
+    }
+
+    // Keyword ending at this state, -1 if none; follow nextOutput for shorter ones ending here too
+    int keywordAt(int state) {
+        return output[state];
+    }
+
+    int nextOutput(int state) {
+        return outputLink[state];
+    }
+
+    int keywordLength(int keyword) {
+        return keywords[keyword].length();
+    }
+
+    private static int[] newState() {
+        int[] state = new int[ALPHABET];
+        Arrays.fill(state, -1);
+        return state;
+    }
+
+    // ASCII-only folding, as Pattern.CASE_INSENSITIVE does without UNICODE_CASE
+    static int lower(char c) {
+        return c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c;
+    }
+}
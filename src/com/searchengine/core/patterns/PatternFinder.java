@@ -2,67 +2,43 @@ package com.searchengine.core.patterns;
 
 import com.searchengine.model.Product;
 import java.util.*;
-import java.util.regex.*;
 
 public class PatternFinder {
-    private final Map<String, Pattern> patterns;
+    private final PatternScanner scanner;
+    private List<Product> indexedProducts; // Catalog the index was built from
+    private PatternIndex index;
 
     public PatternFinder() {
-        patterns = new HashMap<>();
-        initializePatterns();
+        scanner = new PatternScanner();
     }
 
-    private void initializePatterns() {
-        // Audio patterns
-        patterns.put("watts", Pattern.compile("(\\d+)\\s*(?:W|watts)", Pattern.CASE_INSENSITIVE));
-        patterns.put("channels", Pattern.compile("(\\d+(?:\\.\\d+)?)(?:-channel|ch)", Pattern.CASE_INSENSITIVE));
-        patterns.put("bluetooth", Pattern.compile("bluetooth\\s*(?:\\d+(?:\\.\\d+)?)?", Pattern.CASE_INSENSITIVE));
-        patterns.put("dolby", Pattern.compile("dolby\\s+(?:atmos|digital|surround)", Pattern.CASE_INSENSITIVE));
-        patterns.put("frequency", Pattern.compile("(\\d+(?:-\\d+)?)\\s*Hz", Pattern.CASE_INSENSITIVE));
-        patterns.put("dimensions", Pattern.compile("(\\d+(?:\\.\\d+)?\\s*[xX]\\s*\\d+(?:\\.\\d+)?\\s*[xX]\\s*\\d+(?:\\.\\d+)?)\\s*(?:mm|cm|in)?"));
+    // Uses an index already built for this catalog, e.g. the search engine's
+    public PatternFinder(List<Product> products, PatternIndex index) {
+        this();
+        this.indexedProducts = products;
+        this.index = index;
     }
 
+    // Each field is scanned once for all patterns. Matches are grouped by pattern type, in the
+    // order the fields are scanned and by position within a field.
     public List<PatternMatch> findPatterns(Product product) {
-        List<PatternMatch> matches = new ArrayList<>();
-
-        for (Map.Entry<String, Pattern> entry : patterns.entrySet()) {
-            String patternName = entry.getKey();
-            Pattern pattern = entry.getValue();
-
-            // Search in name
-            findMatchesInField(product.getName(), "name", patternName, pattern, matches);
-
-            // Search in description
-            if (product.getDescription() != null) {
-                findMatchesInField(product.getDescription(), "description", patternName, pattern, matches);
-            }
-
-            // Search in features
-            for (String feature : product.getFeatures()) {
-                findMatchesInField(feature, "feature", patternName, pattern, matches);
-            }
-
-            // Search in specifications
-            for (Map.Entry<String, String> spec : product.getSpecifications().entrySet()) {
-                findMatchesInField(spec.getValue(), "specification", patternName, pattern, matches);
-            }
+        List<List<PatternMatch>> byType = new ArrayList<>();
+        for (int type = 0; type < PatternScanner.TYPE_NAMES.length; type++) {
+            byType.add(new ArrayList<>());
         }
 
-        return matches;
-    }
+        scanner.scan(product, (type, field, fieldOrdinal, text, start, end) ->
+                byType.get(type).add(new PatternMatch(
+                        PatternScanner.TYPE_NAMES[type],
+                        PatternScanner.FIELD_NAMES[field],
+                        text.substring(start, end),
+                        start,
+                        end
+                )));
 
-    private void findMatchesInField(String text, String fieldName, String patternName,
-                                    Pattern pattern, List<PatternMatch> matches) {
-        Matcher matcher = pattern.matcher(text);
-        while (matcher.find()) {
-            matches.add(new PatternMatch(
-                    patternName,
-                    fieldName,
-                    matcher.group(),
-                    matcher.start(),
-                    matcher.end()
-            ));
-        }
+        List<PatternMatch> matches = new ArrayList<>();
+        byType.forEach(matches::addAll);
+        return matches;
     }
 
     public Map<String, String> extractMetrics(Product product) {
@@ -111,24 +87,32 @@ public class PatternFinder {
         return new ArrayList<>(features);
     }
 
+    // Matched text -> products, from the pattern index rather than a scan per call.
+    // A product appears once per match, so twice if the text occurs in two of its fields.
     public Map<String, List<Product>> categorizeProducts(List<Product> products, String patternType) {
-        Map<String, List<Product>> categorized = new HashMap<>();
-        Pattern pattern = patterns.get(patternType);
-
-        if (pattern == null) {
+        if (PatternScanner.typeOf(patternType) < 0) {
             throw new IllegalArgumentException("Invalid pattern type: " + patternType);
         }
 
-        for (Product product : products) {
-            List<PatternMatch> matches = findPatterns(product);
-            for (PatternMatch match : matches) {
-                if (match.getFeatureType().equals(patternType)) {
-                    categorized.computeIfAbsent(match.getMatchedText(), k -> new ArrayList<>())
-                            .add(product);
-                }
+        Map<String, List<Product>> categorized = new HashMap<>();
+        indexFor(products).getDocsByMatch(patternType).forEach((text, docIds) -> {
+            List<Product> matching = new ArrayList<>(docIds.length);
+            for (int docId : docIds) {
+                matching.add(products.get(docId));
             }
-        }
-
+            categorized.put(text, matching);
+        });
         return categorized;
     }
+
+    private synchronized PatternIndex indexFor(List<Product> products) {
+        // Keyed on the list itself: a catalog is replaced, never changed in place
+        if (products != indexedProducts) {
+            PatternIndex built = new PatternIndex();
+            built.build(products);
+            index = built;
+            indexedProducts = products;
+        }
+        return index;
+    }
 }
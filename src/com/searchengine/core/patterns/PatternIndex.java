@@ -0,0 +1,139 @@
+package com.searchengine.core.patterns;
+
+import com.searchengine.model.Product;
+import com.searchengine.model.StringDictionary;
+import java.util.*;
+import java.util.stream.IntStream;
+
+// PatternFinder matches of every product, extracted once when the catalog is indexed.
+// Each match is three ints: type, field and field ordinal packed together, start offset, and the
+// code of the matched text in a shared dictionary (the end offset follows from its length).
+// Matches of a doc live in [offsets[docId], offsets[docId + 1]) of the flat array, grouped by type
+// like PatternFinder.findPatterns returns them.
+public final class PatternIndex {
+    private static final int INTS_PER_MATCH = 3;
+    private static final int TYPE_SHIFT = 29;
+    private static final int FIELD_SHIFT = 27;
+    private static final int ORDINAL_MASK = (1 << FIELD_SHIFT) - 1;
+
+    private volatile Matches matches;
+
+    private static final class Matches {
+        final int[] offsets;
+        final int[] entries;
+        final StringDictionary texts;
+        final List<Map<String, int[]>> docsByText; // [type] -> matched text -> doc id per match
+
+        Matches(int[] offsets, int[] entries, StringDictionary texts, List<Map<String, int[]>> docsByText) {
+            this.offsets = offsets;
+            this.entries = entries;
+            this.texts = texts;
+            this.docsByText = docsByText;
+        }
+    }
+
+    public PatternIndex() {
+        build(Collections.emptyList());
+    }
+
+    // Scans the products in parallel; each field is read once for all patterns
+    public void build(List<Product> products) {
+        PatternScanner scanner = new PatternScanner();
+        StringDictionary texts = new StringDictionary();
+        int[][] byDoc = new int[products.size()][];
+        IntStream.range(0, byDoc.length).parallel().forEach(docId -> {
+            Product product = products.get(docId);
+            byDoc[docId] = product == null ? new int[0] : extract(product, scanner, texts);
+        });
+
+        int[] offsets = new int[byDoc.length + 1];
+        for (int docId = 0; docId < byDoc.length; docId++) {
+            offsets[docId + 1] = offsets[docId] + byDoc[docId].length;
+        }
+        int[] entries = new int[offsets[byDoc.length]];
+        for (int docId = 0; docId < byDoc.length; docId++) {
+            System.arraycopy(byDoc[docId], 0, entries, offsets[docId], byDoc[docId].length);
+        }
+
+        // Inverted per type so categorizing is a lookup; docs repeat once per match
+        List<Map<String, List<Integer>>> grouping = new ArrayList<>();
+        for (int type = 0; type < PatternScanner.TYPE_NAMES.length; type++) {
+            grouping.add(new LinkedHashMap<>());
+        }
+        for (int docId = 0; docId < byDoc.length; docId++) {
+            for (int i = offsets[docId]; i < offsets[docId + 1]; i += INTS_PER_MATCH) {
+                grouping.get(entries[i] >>> TYPE_SHIFT)
+                        .computeIfAbsent(texts.get(entries[i + 2]), k -> new ArrayList<>())
+                        .add(docId);
+            }
+        }
+        List<Map<String, int[]>> docsByText = new ArrayList<>();
+        for (Map<String, List<Integer>> byText : grouping) {
+            Map<String, int[]> docs = new LinkedHashMap<>();
+            byText.forEach((text, docIds) -> docs.put(text, docIds.stream().mapToInt(Integer::intValue).toArray()));
+            docsByText.add(Collections.unmodifiableMap(docs));
+        }
+
+        matches = new Matches(offsets, entries, texts, docsByText);
+    }
+
+    private static int[] extract(Product product, PatternScanner scanner, StringDictionary texts) {
+        int[][] byType = new int[PatternScanner.TYPE_NAMES.length][];
+        int[] sizes = new int[byType.length];
+        scanner.scan(product, (type, field, fieldOrdinal, text, start, end) -> {
+            if (byType[type] == null) byType[type] = new int[INTS_PER_MATCH * 2];
+            if (sizes[type] == byType[type].length) byType[type] = Arrays.copyOf(byType[type], sizes[type] * 2);
+            int[] entries = byType[type];
+            entries[sizes[type]++] = type << TYPE_SHIFT | field << FIELD_SHIFT | (fieldOrdinal & ORDINAL_MASK);
+            entries[sizes[type]++] = start;
+            entries[sizes[type]++] = texts.intern(text.substring(start, end));
+        });
+
+        int total = 0;
+        for (int size : sizes) total += size;
+        int[] packed = new int[total];
+        int position = 0;
+        for (int type = 0; type < byType.length; type++) {
+            if (sizes[type] == 0) continue;
+            System.arraycopy(byType[type], 0, packed, position, sizes[type]);
+            position += sizes[type];
+        }
+        return packed;
+    }
+
+    public int size() {
+        return matches.offsets.length - 1;
+    }
+
+    public static List<String> getPatternTypes() {
+        return List.of(PatternScanner.TYPE_NAMES);
+    }
+
+    // Matches of one product, as PatternFinder.findPatterns would return them
+    public List<PatternMatch> getMatches(int docId) {
+        Matches current = matches;
+        List<PatternMatch> result = new ArrayList<>();
+        for (int i = current.offsets[docId]; i < current.offsets[docId + 1]; i += INTS_PER_MATCH) {
+            int packed = current.entries[i];
+            int start = current.entries[i + 1];
+            String text = current.texts.get(current.entries[i + 2]);
+            result.add(new PatternMatch(
+                    PatternScanner.TYPE_NAMES[packed >>> TYPE_SHIFT],
+                    PatternScanner.FIELD_NAMES[(packed >>> FIELD_SHIFT) & 3],
+                    text,
+                    start,
+                    start + text.length()
+            ));
+        }
+        return result;
+    }
+
+    // Matched text -> doc id of every match of that text, in doc order
+    public Map<String, int[]> getDocsByMatch(String patternType) {
+        int type = PatternScanner.typeOf(patternType);
+        if (type < 0) {
+            throw new IllegalArgumentException("Invalid pattern type: " + patternType);
+        }
+        return matches.docsByText.get(type);
+    }
+}
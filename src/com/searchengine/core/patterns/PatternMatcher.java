@@ -1,17 +1,15 @@
 package com.searchengine.core.patterns;
 
+import com.searchengine.core.validation.DataValidator;
 import com.searchengine.model.Product;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 import java.util.regex.*;
 import java.util.stream.Collectors;
 
 public class PatternMatcher {
-    // Common validation patterns
-    private static final Map<String, Pattern> VALIDATION_PATTERNS = new HashMap<>() {{
-        put("model", Pattern.compile("^[A-Z0-9]+-[A-Z0-9]+$"));
-        put("price", Pattern.compile("^\\$?\\d+(?:\\.\\d{2})?$"));
-        put("url", Pattern.compile("^https?://[\\w.-]+(?:\\.[\\w.-]+)+[\\w\\-._~:/?#\\[\\]@!$&'()*+,;=]*$"));
-    }};
+    // URLs are checked by a single char scan instead of the backtracking URL regex
+    private static final DataValidator FIELD_VALIDATOR = new DataValidator();
 
     // Product-specific patterns
     private static final Map<String, Pattern> FEATURE_PATTERNS = new HashMap<>() {{
@@ -21,11 +19,72 @@ public class PatternMatcher {
         put("channels", Pattern.compile("(?i)(\\d+(?:\\.\\d+)?)\\s*ch(annel)?s?"));
     }};
 
+    // Feature patterns by position; bit i of a CatalogAnalysis flag is FEATURE_NAMES[i]
+    private static final String[] FEATURE_NAMES = FEATURE_PATTERNS.keySet().toArray(new String[0]);
+    private static final Pattern[] FEATURE_REGEXES = Arrays.stream(FEATURE_NAMES)
+            .map(FEATURE_PATTERNS::get)
+            .toArray(Pattern[]::new);
+
+    private static final int MAX_CACHED_PATTERNS = 64;
+
+    // Access-ordered map evicts the least recently used pattern
+    private final Map<String, CompiledPattern> patternCache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CompiledPattern> eldest) {
+            return size() > MAX_CACHED_PATTERNS;
+        }
+    };
+
+    private List<Product> indexedProducts; // Catalog the trigram index was built from
+    private TrigramIndex trigramIndex;
+
+    private static final class CompiledPattern {
+        final Pattern pattern;
+        final TrigramQuery trigrams; // Trigrams every match contains
+
+        CompiledPattern(Pattern pattern, TrigramQuery trigrams) {
+            this.pattern = pattern;
+            this.trigrams = trigrams;
+        }
+    }
+
+    // Only products holding the trigrams the regex requires are run through the regex itself
     public List<Product> findProductsMatchingPattern(List<Product> products, String pattern) {
-        Pattern compiledPattern = Pattern.compile(pattern, Pattern.CASE_INSENSITIVE);
-        return products.stream()
-                .filter(product -> matchesPattern(product, compiledPattern))
-                .collect(Collectors.toList());
+        CompiledPattern compiled = compile(pattern);
+        if (compiled.trigrams.isAll()) {
+            return products.stream()
+                    .filter(product -> matchesPattern(product, compiled.pattern))
+                    .collect(Collectors.toList());
+        }
+
+        int[] candidates = indexFor(products).candidates(compiled.trigrams);
+        List<Product> matching = new ArrayList<>();
+        for (int docId : candidates) {
+            Product product = products.get(docId);
+            if (matchesPattern(product, compiled.pattern)) {
+                matching.add(product);
+            }
+        }
+        return matching;
+    }
+
+    private synchronized CompiledPattern compile(String pattern) {
+        CompiledPattern compiled = patternCache.get(pattern);
+        if (compiled == null) {
+            compiled = new CompiledPattern(Pattern.compile(pattern, Pattern.CASE_INSENSITIVE),
+                    RegexTrigrams.query(pattern));
+            patternCache.put(pattern, compiled);
+        }
+        return compiled;
+    }
+
+    private synchronized TrigramIndex indexFor(List<Product> products) {
+        // Keyed on the list itself: a catalog is replaced, never changed in place
+        if (products != indexedProducts) {
+            trigramIndex = new TrigramIndex(products);
+            indexedProducts = products;
+        }
+        return trigramIndex;
     }
 
     private boolean matchesPattern(Product product, Pattern pattern) {
@@ -50,32 +109,26 @@ public class PatternMatcher {
         return false;
     }
 
+    // One parallel pass over the catalog checks every feature pattern per product
     public Map<String, List<Product>> categorizeByFeatures(List<Product> products) {
-        Map<String, List<Product>> categorized = new HashMap<>();
-
-        for (Map.Entry<String, Pattern> feature : FEATURE_PATTERNS.entrySet()) {
-            List<Product> matching = products.stream()
-                    .filter(product -> hasFeature(product, feature.getValue()))
-                    .collect(Collectors.toList());
-            if (!matching.isEmpty()) {
-                categorized.put(feature.getKey(), matching);
-            }
-        }
-
-        return categorized;
+        return scan(products, false, null).getProductsByFeature();
     }
 
-    private boolean hasFeature(Product product, Pattern pattern) {
-        // Check features
-        for (String feature : product.getFeatures()) {
-            if (pattern.matcher(feature).find()) return true;
-        }
+    public CatalogAnalysis analyzeCatalog(List<Product> products) {
+        return analyzeCatalog(products, new DataValidator());
+    }
 
-        // Check description
-        if (product.getDescription() != null &&
-                pattern.matcher(product.getDescription()).find()) return true;
+    // Feature patterns, validateProduct and the DataValidator checks, all in the same pass
+    public CatalogAnalysis analyzeCatalog(List<Product> products, DataValidator validator) {
+        return scan(products, true, validator);
+    }
 
-        return false;
+    private CatalogAnalysis scan(List<Product> products, boolean validate, DataValidator validator) {
+        int[] flags = new int[products.size()];
+        int[] codes = validator == null ? null : new int[products.size()];
+        ForkJoinPool.commonPool().invoke(new CatalogScan(products, FEATURE_REGEXES,
+                validate ? this : null, validator, flags, codes, 0, products.size()));
+        return new CatalogAnalysis(products, FEATURE_NAMES, flags, validator, codes);
     }
 
     public Map<String, String> extractProductMetrics(Product product) {
@@ -118,14 +171,12 @@ public class PatternMatcher {
         }
 
         // Validate URL if present
-        if (product.getUrl() != null && !VALIDATION_PATTERNS.get("url")
-                .matcher(product.getUrl()).matches()) {
+        if (product.getUrl() != null && !FIELD_VALIDATOR.isValidUrl(product.getUrl())) {
             return false;
         }
 
-        // Validate price format
-        String priceStr = String.format("$%.2f", product.getPrice());
-        if (!VALIDATION_PATTERNS.get("price").matcher(priceStr).matches()) {
+        // Any finite positive price prints as a valid amount; only NaN and infinity fail the price format
+        if (!Double.isFinite(product.getPrice())) {
             return false;
         }
 
@@ -0,0 +1,213 @@
+package com.searchengine.core.patterns;
+
+import com.searchengine.model.Product;
+
+// Finds every PatternFinder pattern in one left-to-right pass over a field. Keywords (bluetooth,
+// dolby) run through an Aho-Corasick automaton and their optional tails are checked where the
+// keyword ends; numeric patterns (watts, channels, frequency, dimensions) are tried by hand at the
+// first digit of each digit run. Matches are exactly those of the regexes this replaces:
+//   watts       (\d+)\s*(?:W|watts)                      case-insensitive
+//   channels    (\d+(?:\.\d+)?)(?:-channel|ch)            case-insensitive
+//   bluetooth   bluetooth\s*(?:\d+(?:\.\d+)?)?            case-insensitive
+//   dolby       dolby\s+(?:atmos|digital|surround)        case-insensitive
+//   frequency   (\d+(?:-\d+)?)\s*Hz                       case-insensitive
+//   dimensions  (\d+(?:\.\d+)? x \d+(?:\.\d+)? x \d+(?:\.\d+)?)\s*(?:mm|cm|in)?  ([xX], spaces optional)
+// Like Matcher.find, matches of one pattern never overlap; different patterns may overlap.
+class PatternScanner {
+    static final int WATTS = 0;
+    static final int CHANNELS = 1;
+    static final int BLUETOOTH = 2;
+    static final int DOLBY = 3;
+    static final int FREQUENCY = 4;
+    static final int DIMENSIONS = 5;
+    static final String[] TYPE_NAMES = {"watts", "channels", "bluetooth", "dolby", "frequency", "dimensions"};
+
+    static final int NAME = 0;
+    static final int DESCRIPTION = 1;
+    static final int FEATURE = 2;
+    static final int SPECIFICATION = 3;
+    static final String[] FIELD_NAMES = {"name", "description", "feature", "specification"};
+
+    private static final int KEYWORD_BLUETOOTH = 0;
+    private static final int KEYWORD_DOLBY = 1;
+    private static final String[] DOLBY_FORMATS = {"atmos", "digital", "surround"};
+
+    private final KeywordAutomaton keywords = new KeywordAutomaton("bluetooth", "dolby");
+
+    interface MatchSink {
+        void match(int type, int start, int end);
+    }
+
+    // fieldOrdinal is the index of the feature or specification, 0 for name and description
+    interface FieldMatchSink {
+        void match(int type, int field, int fieldOrdinal, String text, int start, int end);
+    }
+
+    static int typeOf(String name) {
+        for (int type = 0; type < TYPE_NAMES.length; type++) {
+            if (TYPE_NAMES[type].equals(name)) return type;
+        }
+        return -1;
+    }
+
+    // Name, description, features, then specification values
+    void scan(Product product, FieldMatchSink sink) {
+        scanField(product.getName(), NAME, 0, sink);
+        scanField(product.getDescription(), DESCRIPTION, 0, sink);
+        int ordinal = 0;
+        for (String feature : product.getFeatures()) {
+            scanField(feature, FEATURE, ordinal++, sink);
+        }
+        ordinal = 0;
+        for (String value : product.getSpecifications().values()) {
+            scanField(value, SPECIFICATION, ordinal++, sink);
+        }
+    }
+
+    private void scanField(String text, int field, int fieldOrdinal, FieldMatchSink sink) {
+        scan(text, (type, start, end) -> sink.match(type, field, fieldOrdinal, text, start, end));
+    }
+
+    void scan(String text, MatchSink sink) {
+        if (text == null) return;
+
+        int length = text.length();
+        // End of the last match per type; a match may not start before it
+        int wattsFrom = 0, channelsFrom = 0, bluetoothFrom = 0, dolbyFrom = 0, frequencyFrom = 0, dimensionsFrom = 0;
+        int state = keywords.start();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+
+            if (isDigit(c) && (i == 0 || !isDigit(text.charAt(i - 1)))) {
+                int end;
+                if (i >= wattsFrom && (end = matchWatts(text, i)) > 0) {
+                    sink.match(WATTS, i, end);
+                    wattsFrom = end;
+                }
+                if (i >= channelsFrom && (end = matchChannels(text, i)) > 0) {
+                    sink.match(CHANNELS, i, end);
+                    channelsFrom = end;
+                }
+                if (i >= frequencyFrom && (end = matchFrequency(text, i)) > 0) {
+                    sink.match(FREQUENCY, i, end);
+                    frequencyFrom = end;
+                }
+                if (i >= dimensionsFrom && (end = matchDimensions(text, i)) > 0) {
+                    sink.match(DIMENSIONS, i, end);
+                    dimensionsFrom = end;
+                }
+            }
+
+            state = keywords.next(state, c);
+            for (int s = state; s > 0; s = keywords.nextOutput(s)) {
+                int keyword = keywords.keywordAt(s);
+                if (keyword < 0) continue;
+
+                int start = i + 1 - keywords.keywordLength(keyword);
+                int end;
+                if (keyword == KEYWORD_BLUETOOTH && start >= bluetoothFrom) {
+                    end = matchBluetoothVersion(text, i + 1);
+                    sink.match(BLUETOOTH, start, end);
+                    bluetoothFrom = end;
+                } else if (keyword == KEYWORD_DOLBY && start >= dolbyFrom
+                        && (end = matchDolbyFormat(text, i + 1)) > 0) {
+                    sink.match(DOLBY, start, end);
+                    dolbyFrom = end;
+                }
+            }
+        }
+    }
+
+    private static int matchWatts(String text, int start) {
+        int i = skipWhitespace(text, digitsEnd(text, start));
+        return i < text.length() && KeywordAutomaton.lower(text.charAt(i)) == 'w' ? i + 1 : -1;
+    }
+
+    private static int matchChannels(String text, int start) {
+        int i = fractionEnd(text, digitsEnd(text, start));
+        if (regionMatchesLower(text, i, "-channel")) return i + "-channel".length();
+        if (regionMatchesLower(text, i, "ch")) return i + 2;
+        return -1;
+    }
+
+    private static int matchFrequency(String text, int start) {
+        int i = digitsEnd(text, start);
+        if (i + 1 < text.length() && text.charAt(i) == '-' && isDigit(text.charAt(i + 1))) {
+            i = digitsEnd(text, i + 1);
+        }
+        i = skipWhitespace(text, i);
+        return regionMatchesLower(text, i, "hz") ? i + 2 : -1;
+    }
+
+    private static int matchDimensions(String text, int start) {
+        int i = fractionEnd(text, digitsEnd(text, start));
+        for (int side = 0; side < 2; side++) {
+            i = skipWhitespace(text, i);
+            if (i >= text.length() || (text.charAt(i) != 'x' && text.charAt(i) != 'X')) return -1;
+            i = skipWhitespace(text, i + 1);
+            if (i >= text.length() || !isDigit(text.charAt(i))) return -1;
+            i = fractionEnd(text, digitsEnd(text, i));
+        }
+
+        // Trailing whitespace belongs to the match even without a unit
+        i = skipWhitespace(text, i);
+        if (text.startsWith("mm", i) || text.startsWith("cm", i) || text.startsWith("in", i)) {
+            i += 2;
+        }
+        return i;
+    }
+
+    // End of "bluetooth" plus optional whitespace and version, starting right after the keyword
+    private static int matchBluetoothVersion(String text, int i) {
+        i = skipWhitespace(text, i);
+        if (i < text.length() && isDigit(text.charAt(i))) {
+            i = fractionEnd(text, digitsEnd(text, i));
+        }
+        return i;
+    }
+
+    private static int matchDolbyFormat(String text, int i) {
+        int formatStart = skipWhitespace(text, i);
+        if (formatStart == i) return -1;
+        for (String format : DOLBY_FORMATS) {
+            if (regionMatchesLower(text, formatStart, format)) return formatStart + format.length();
+        }
+        return -1;
+    }
+
+    // After digits at i: a '.' and at least one more digit extend the number
+    private static int fractionEnd(String text, int i) {
+        if (i + 1 < text.length() && text.charAt(i) == '.' && isDigit(text.charAt(i + 1))) {
+            return digitsEnd(text, i + 1);
+        }
+        return i;
+    }
+
+    private static int digitsEnd(String text, int i) {
+        while (i < text.length() && isDigit(text.charAt(i))) i++;
+        return i;
+    }
+
+    private static int skipWhitespace(String text, int i) {
+        while (i < text.length() && isWhitespace(text.charAt(i))) i++;
+        return i;
+    }
+
+    // Case-insensitive comparison against a lower-case ASCII literal
+    private static boolean regionMatchesLower(String text, int i, String literal) {
+        if (i + literal.length() > text.length()) return false;
+        for (int k = 0; k < literal.length(); k++) {
+            if (KeywordAutomaton.lower(text.charAt(i + k)) != literal.charAt(k)) return false;
+        }
+        return true;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    // The regex \s class: [ \t\n\x0B\f\r]
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
@@ -0,0 +1,477 @@
+package com.searchengine.core.patterns;
+
+import java.util.*;
+
+// Works out which trigrams any match of a regex must contain, after Russ Cox's trigram index for
+// Google Code Search. Every sub-expression is summarised by whether it can match the empty string,
+// the exact set of strings it matches while that set is small, otherwise the possible prefixes and
+// suffixes of its matches, and a query its matches always satisfy. Concatenation joins a suffix to
+// the next prefix, which is where trigrams spanning two sub-expressions come from.
+// Literals fold to ASCII lower case, the way CASE_INSENSITIVE compares them, so the index must fold
+// its text the same way. Anything not understood (Unicode case, comments mode, back references, ...)
+// is treated as "any string": the query may get weaker but never rejects a real match.
+final class RegexTrigrams {
+    private static final int MAX_SET = 20; // Larger string sets fall back to coarser summaries
+    private static final int KEEP = TrigramQuery.GRAM_SIZE - 1; // Chars that can still join a neighbour's trigram
+    private static final int MAX_REPEAT = 4; // x{n} is summarised as at most this many copies of x
+
+    private static final Set<String> DIGITS = chars("0123456789");
+    private static final Set<String> WHITESPACE = chars(" \t\n\u000B\f\r");
+
+    private final String regex;
+    private int pos;
+
+    private static final class Info {
+        boolean emptyable;
+        Set<String> exact;  // Every string matched, or null once that is unknown or too large
+        Set<String> prefix; // Possible starts of a match, used when exact is null
+        Set<String> suffix; // Possible ends of a match, used when exact is null
+        TrigramQuery match = TrigramQuery.ALL;
+    }
+
+    private static final class UnsupportedRegexException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        UnsupportedRegexException(String message) {
+            super(message);
+        }
+    }
+
+    private RegexTrigrams(String regex) {
+        this.regex = regex;
+    }
+
+    // Trigram query for a regex that already compiles; ALL when nothing can be required
+    static TrigramQuery query(String regex) {
+        try {
+            RegexTrigrams parser = new RegexTrigrams(regex);
+            Info info = parser.alternation();
+            if (parser.pos != regex.length()) return TrigramQuery.ALL;
+            return matchOf(info);
+        } catch (UnsupportedRegexException | IndexOutOfBoundsException e) {
+            return TrigramQuery.ALL;
+        }
+    }
+
+    // Parsing, by decreasing precedence: alternation, concatenation, repetition, atoms
+
+    private Info alternation() {
+        Info info = concatenation();
+        while (pos < regex.length() && regex.charAt(pos) == '|') {
+            pos++;
+            info = alternate(info, concatenation());
+        }
+        return info;
+    }
+
+    private Info concatenation() {
+        Info info = emptyString();
+        while (pos < regex.length() && regex.charAt(pos) != '|' && regex.charAt(pos) != ')') {
+            info = concat(info, repetition());
+        }
+        return info;
+    }
+
+    private Info repetition() {
+        Info info = atom();
+        while (pos < regex.length()) {
+            char c = regex.charAt(pos);
+            if (c == '*') {
+                pos++;
+                info = anyString();
+            } else if (c == '+') {
+                pos++;
+                info = plus(info);
+            } else if (c == '?') {
+                pos++;
+                info = alternate(info, emptyString());
+            } else if (c == '{') {
+                pos++;
+                int min = number();
+                int max = min;
+                if (regex.charAt(pos) == ',') {
+                    pos++;
+                    max = regex.charAt(pos) == '}' ? -1 : number();
+                }
+                if (regex.charAt(pos++) != '}') throw new UnsupportedRegexException("Bad repetition");
+                info = repeat(info, min, max);
+            } else {
+                break;
+            }
+            // Lazy and possessive quantifiers only narrow the matches; the summary still holds
+            if (pos < regex.length() && (regex.charAt(pos) == '?' || regex.charAt(pos) == '+')) pos++;
+        }
+        return info;
+    }
+
+    private Info atom() {
+        char c = regex.charAt(pos++);
+        switch (c) {
+            case '(':
+                return group();
+            case '[': {
+                Set<String> chars = new LinkedHashSet<>();
+                boolean any = classBody(chars);
+                return any || chars.size() > MAX_SET ? anyChar() : exactOf(chars);
+            }
+            case '.':
+                return anyChar();
+            case '^':
+            case '$':
+                return emptyString();
+            case '\\':
+                return escape();
+            default:
+                if (Character.isHighSurrogate(c) && pos < regex.length() && Character.isLowSurrogate(regex.charAt(pos))) {
+                    return exactOf(Set.of(fold(Character.toCodePoint(c, regex.charAt(pos++)))));
+                }
+                return exactOf(Set.of(fold(c)));
+        }
+    }
+
+    private Info group() {
+        Info info;
+        if (regex.charAt(pos) != '?') {
+            info = alternation();
+        } else {
+            pos++;
+            char kind = regex.charAt(pos);
+            if (kind == ':' || kind == '>') {
+                pos++;
+                info = alternation();
+            } else if (kind == '=' || kind == '!') {
+                // Lookarounds consume nothing
+                pos++;
+                alternation();
+                info = emptyString();
+            } else if (kind == '<' && (regex.charAt(pos + 1) == '=' || regex.charAt(pos + 1) == '!')) {
+                pos += 2;
+                alternation();
+                info = emptyString();
+            } else if (kind == '<') {
+                pos = regex.indexOf('>', pos) + 1; // Named group
+                info = alternation();
+            } else {
+                // Inline flags, (?flags) or (?flags:X); Unicode case and comments change what literals match
+                boolean on = true;
+                for (char flag = regex.charAt(pos); flag != ':' && flag != ')'; flag = regex.charAt(++pos)) {
+                    if (flag == '-') on = false;
+                    else if (on && (flag == 'u' || flag == 'U' || flag == 'x')) {
+                        throw new UnsupportedRegexException("Unsupported flag " + flag);
+                    }
+                }
+                if (regex.charAt(pos++) == ')') return emptyString();
+                info = alternation();
+            }
+        }
+        if (pos >= regex.length() || regex.charAt(pos) != ')') throw new UnsupportedRegexException("Unclosed group");
+        pos++;
+        return info;
+    }
+
+    private Info escape() {
+        char c = regex.charAt(pos++);
+        switch (c) {
+            case 'd':
+                return exactOf(DIGITS);
+            case 's':
+                return exactOf(WHITESPACE);
+            case 'D': case 'w': case 'W': case 'S': case 'h': case 'H': case 'v': case 'V': case 'R': case 'X':
+                return anyChar();
+            case 'p': case 'P': case 'N':
+                skipName();
+                return anyChar();
+            case 'b':
+                skipName();
+                return emptyString();
+            case 'B': case 'A': case 'G': case 'Z': case 'z':
+                return emptyString();
+            case 'Q':
+                return exactOf(Set.of(quoted()));
+            case 'k':
+                pos = regex.indexOf('>', pos) + 1;
+                return anyString();
+            default:
+                if (c >= '1' && c <= '9') {
+                    // Back reference: whatever the group matched
+                    while (pos < regex.length() && Character.isDigit(regex.charAt(pos))) pos++;
+                    return anyString();
+                }
+                return exactOf(Set.of(fold(escapedChar(c))));
+        }
+    }
+
+    // Adds the chars of [...] up to and including its ']'; true when the class cannot be enumerated
+    private boolean classBody(Set<String> chars) {
+        boolean any = false;
+        if (regex.charAt(pos) == '^') {
+            pos++;
+            any = true;
+        }
+        for (boolean first = true; ; first = false) {
+            char c = regex.charAt(pos);
+            if (c == ']' && !first) {
+                pos++;
+                return any;
+            }
+            if (c == '[') {
+                pos++;
+                any |= classBody(chars);
+                continue;
+            }
+            if (regex.startsWith("&&", pos)) {
+                pos += 2;
+                any = true; // Intersections are rare enough to match as any char
+                continue;
+            }
+            if (c == '\\') {
+                char e = regex.charAt(pos + 1);
+                if (e == 'd' || e == 's') {
+                    pos += 2;
+                    chars.addAll(e == 'd' ? DIGITS : WHITESPACE);
+                    continue;
+                }
+                if ("DSwWhHvVpPN".indexOf(e) >= 0) {
+                    pos += 2;
+                    if (e == 'p' || e == 'P' || e == 'N') skipName();
+                    any = true;
+                    continue;
+                }
+                if (e == 'Q') {
+                    pos += 2;
+                    quoted().chars().forEach(ch -> chars.add(String.valueOf((char) ch)));
+                    continue;
+                }
+            }
+
+            int from = classChar();
+            int to = from;
+            if (regex.charAt(pos) == '-' && regex.charAt(pos + 1) != ']') {
+                pos++;
+                to = classChar();
+            }
+            if (to > Character.MAX_VALUE || to - from >= MAX_SET) {
+                any = true;
+            } else {
+                for (int ch = from; ch <= to; ch++) chars.add(fold(ch));
+            }
+        }
+    }
+
+    private int classChar() {
+        char c = regex.charAt(pos++);
+        if (c == '\\') return escapedChar(regex.charAt(pos++));
+        if (Character.isHighSurrogate(c) && Character.isLowSurrogate(regex.charAt(pos))) {
+            return Character.toCodePoint(c, regex.charAt(pos++));
+        }
+        return c;
+    }
+
+    // The char of a single-char escape whose letter has already been read
+    private int escapedChar(char c) {
+        switch (c) {
+            case 't': return '\t';
+            case 'n': return '\n';
+            case 'r': return '\r';
+            case 'f': return '\f';
+            case 'a': return '\u0007';
+            case 'e': return '\u001B';
+            case 'c': return regex.charAt(pos++) ^ 64;
+            case '0': {
+                int value = 0;
+                for (int digits = 0; digits < 3 && pos < regex.length(); digits++) {
+                    char d = regex.charAt(pos);
+                    if (d < '0' || d > '7' || value * 8 + (d - '0') > 0377) break;
+                    value = value * 8 + (d - '0');
+                    pos++;
+                }
+                return value;
+            }
+            case 'x':
+                if (regex.charAt(pos) == '{') {
+                    int end = regex.indexOf('}', pos);
+                    int value = Integer.parseInt(regex.substring(pos + 1, end), 16);
+                    pos = end + 1;
+                    return value;
+                }
+                pos += 2;
+                return Integer.parseInt(regex.substring(pos - 2, pos), 16);
+            case 'u':
+                pos += 4;
+                return Integer.parseInt(regex.substring(pos - 4, pos), 16);
+            default:
+                if (Character.isLetterOrDigit(c)) throw new UnsupportedRegexException("Unknown escape \\" + c);
+                return c;
+        }
+    }
+
+    // Text of \Q...\E after the \Q, folded
+    private String quoted() {
+        int end = regex.indexOf("\\E", pos);
+        if (end < 0) end = regex.length();
+        StringBuilder text = new StringBuilder();
+        for (int i = pos; i < end; i++) text.append(fold(regex.charAt(i)));
+        pos = Math.min(end + 2, regex.length());
+        return text.toString();
+    }
+
+    // Skips an optional {name} or a single-letter property name
+    private void skipName() {
+        if (pos >= regex.length()) return;
+        if (regex.charAt(pos) == '{') {
+            pos = regex.indexOf('}', pos) + 1;
+        } else if (regex.charAt(pos - 1) != 'b') {
+            pos++;
+        }
+    }
+
+    private int number() {
+        int start = pos;
+        while (Character.isDigit(regex.charAt(pos))) pos++;
+        if (pos == start) throw new UnsupportedRegexException("Expected a number");
+        return Integer.parseInt(regex.substring(start, pos));
+    }
+
+    // Summaries
+
+    private static Info emptyString() {
+        return exactOf(Set.of(""));
+    }
+
+    private static Info exactOf(Set<String> strings) {
+        Info info = new Info();
+        info.exact = strings;
+        info.emptyable = strings.contains("");
+        return info;
+    }
+
+    // Exactly one char (or one unit such as a line break) about which nothing is known
+    private static Info anyChar() {
+        Info info = new Info();
+        info.prefix = Set.of("");
+        info.suffix = Set.of("");
+        return info;
+    }
+
+    private static Info anyString() {
+        Info info = anyChar();
+        info.emptyable = true;
+        return info;
+    }
+
+    private static Set<String> prefixOf(Info info) {
+        return info.exact != null ? info.exact : info.prefix;
+    }
+
+    private static Set<String> suffixOf(Info info) {
+        return info.exact != null ? info.exact : info.suffix;
+    }
+
+    // Everything a match is known to satisfy, exact strings included
+    private static TrigramQuery matchOf(Info info) {
+        return info.exact != null ? TrigramQuery.and(info.match, TrigramQuery.anyOf(info.exact)) : info.match;
+    }
+
+    private static Info concat(Info x, Info y) {
+        if (x.exact != null && y.exact != null && x.exact.size() * y.exact.size() <= MAX_SET) {
+            Info info = exactOf(cross(x.exact, y.exact));
+            info.match = TrigramQuery.and(x.match, y.match);
+            return info;
+        }
+
+        Info info = new Info();
+        info.emptyable = x.emptyable && y.emptyable;
+        info.match = TrigramQuery.and(TrigramQuery.and(matchOf(x), matchOf(y)),
+                TrigramQuery.anyOf(cross(suffixOf(x), prefixOf(y))));
+        info.prefix = x.exact != null ? cross(x.exact, prefixOf(y))
+                : x.emptyable ? union(x.prefix, prefixOf(y)) : x.prefix;
+        info.suffix = y.exact != null ? cross(suffixOf(x), y.exact)
+                : y.emptyable ? union(suffixOf(x), y.suffix) : y.suffix;
+        return summarize(info);
+    }
+
+    private static Info alternate(Info x, Info y) {
+        if (x.exact != null && y.exact != null) {
+            Set<String> exact = union(x.exact, y.exact);
+            if (exact.size() <= MAX_SET) {
+                Info info = exactOf(exact);
+                info.match = TrigramQuery.or(x.match, y.match);
+                return info;
+            }
+        }
+
+        Info info = new Info();
+        info.emptyable = x.emptyable || y.emptyable;
+        info.match = TrigramQuery.or(matchOf(x), matchOf(y));
+        info.prefix = shorten(union(prefixOf(x), prefixOf(y)), true);
+        info.suffix = shorten(union(suffixOf(x), suffixOf(y)), false);
+        return info;
+    }
+
+    // x+ starts and ends like x and contains at least one x
+    private static Info plus(Info x) {
+        Info info = new Info();
+        info.emptyable = x.emptyable;
+        info.match = x.match;
+        info.prefix = prefixOf(x);
+        info.suffix = suffixOf(x);
+        return summarize(info);
+    }
+
+    // x{min,max}, max -1 when unbounded: min copies of x, then anything when more are allowed
+    private static Info repeat(Info x, int min, int max) {
+        if (min == 0) {
+            return max == 0 ? emptyString() : max == 1 ? alternate(x, emptyString()) : anyString();
+        }
+        Info info = x;
+        for (int i = 1; i < Math.min(min, MAX_REPEAT); i++) {
+            info = concat(info, x);
+        }
+        return min == max && min <= MAX_REPEAT ? info : concat(info, anyString());
+    }
+
+    // Moves the trigrams of long prefixes and suffixes into the query and keeps only the chars
+    // that can still form a trigram with a neighbour
+    private static Info summarize(Info info) {
+        info.match = TrigramQuery.and(info.match,
+                TrigramQuery.and(TrigramQuery.anyOf(info.prefix), TrigramQuery.anyOf(info.suffix)));
+        info.prefix = shorten(info.prefix, true);
+        info.suffix = shorten(info.suffix, false);
+        return info;
+    }
+
+    private static Set<String> shorten(Set<String> strings, boolean keepStart) {
+        Set<String> shortened = new LinkedHashSet<>();
+        for (String s : strings) {
+            if (s.length() <= KEEP) shortened.add(s);
+            else shortened.add(keepStart ? s.substring(0, KEEP) : s.substring(s.length() - KEEP));
+        }
+        return shortened.size() > MAX_SET ? Set.of("") : shortened;
+    }
+
+    private static Set<String> cross(Set<String> a, Set<String> b) {
+        Set<String> result = new LinkedHashSet<>();
+        for (String s : a) {
+            for (String t : b) result.add(s + t);
+        }
+        return result;
+    }
+
+    private static Set<String> union(Set<String> a, Set<String> b) {
+        Set<String> result = new LinkedHashSet<>(a);
+        result.addAll(b);
+        return result;
+    }
+
+    private static Set<String> chars(String chars) {
+        Set<String> set = new LinkedHashSet<>();
+        for (char c : chars.toCharArray()) set.add(String.valueOf(c));
+        return Collections.unmodifiableSet(set);
+    }
+
+    // ASCII-only case folding, matching CASE_INSENSITIVE without UNICODE_CASE
+    static String fold(int codePoint) {
+        return codePoint < 128 ? String.valueOf((char) KeywordAutomaton.lower((char) codePoint))
+                : new String(Character.toChars(codePoint));
+    }
+}
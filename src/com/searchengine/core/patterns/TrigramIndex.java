@@ -0,0 +1,61 @@
+package com.searchengine.core.patterns;
+
+import com.searchengine.model.Product;
+import java.util.*;
+
+// Trigram postings over every field PatternMatcher searches: name, description, features and
+// specification keys and values. Text is folded to ASCII lower case like RegexTrigrams folds regex
+// literals. Trigrams are taken within a field, never across two, since a regex match lies inside
+// one field.
+class TrigramIndex {
+    private final Map<String, int[]> postings;
+    private final int size;
+
+    TrigramIndex(List<Product> products) {
+        Map<String, List<Integer>> building = new HashMap<>();
+        for (int docId = 0; docId < products.size(); docId++) {
+            Product product = products.get(docId);
+            if (product == null) continue;
+
+            // Each distinct trigram is posted once per document, so postings stay sorted
+            Set<String> grams = new HashSet<>();
+            addTrigrams(product.getName(), grams);
+            addTrigrams(product.getDescription(), grams);
+            for (String feature : product.getFeatures()) {
+                addTrigrams(feature, grams);
+            }
+            for (Map.Entry<String, String> spec : product.getSpecifications().entrySet()) {
+                addTrigrams(spec.getKey(), grams);
+                addTrigrams(spec.getValue(), grams);
+            }
+            for (String gram : grams) {
+                building.computeIfAbsent(gram, k -> new ArrayList<>()).add(docId);
+            }
+        }
+
+        this.postings = new HashMap<>();
+        building.forEach((gram, docs) -> postings.put(gram, docs.stream().mapToInt(Integer::intValue).toArray()));
+        this.size = products.size();
+    }
+
+    private static void addTrigrams(String text, Set<String> grams) {
+        if (text == null || text.length() < TrigramQuery.GRAM_SIZE) return;
+
+        char[] folded = new char[text.length()];
+        for (int i = 0; i < folded.length; i++) {
+            folded[i] = (char) KeywordAutomaton.lower(text.charAt(i));
+        }
+        for (int i = 0; i + TrigramQuery.GRAM_SIZE <= folded.length; i++) {
+            grams.add(new String(folded, i, TrigramQuery.GRAM_SIZE));
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Sorted doc ids that may match, or null when the query cannot narrow them down
+    int[] candidates(TrigramQuery query) {
+        return query.evaluate(postings::get);
+    }
+}
@@ -0,0 +1,157 @@
+package com.searchengine.core.patterns;
+
+import java.util.*;
+import java.util.function.Function;
+
+// Boolean query over trigrams that a text must contain to possibly match a regex. An AND node
+// needs every one of its trigrams and sub-queries, an OR node at least one. ALL accepts every
+// doc and is also the answer whenever nothing useful is known; NONE accepts no doc.
+final class TrigramQuery {
+    enum Op { ALL, NONE, AND, OR }
+
+    static final TrigramQuery ALL = new TrigramQuery(Op.ALL, Collections.emptySet(), Collections.emptyList());
+    static final TrigramQuery NONE = new TrigramQuery(Op.NONE, Collections.emptySet(), Collections.emptyList());
+
+    static final int GRAM_SIZE = 3;
+
+    private final Op op;
+    private final Set<String> trigrams;
+    private final List<TrigramQuery> subs;
+
+    private TrigramQuery(Op op, Set<String> trigrams, List<TrigramQuery> subs) {
+        this.op = op;
+        this.trigrams = trigrams;
+        this.subs = subs;
+    }
+
+    boolean isAll() {
+        return op == Op.ALL;
+    }
+
+    // OR over the strings of the AND of each string's trigrams. A string shorter than a trigram
+    // constrains nothing, so it makes the whole query ALL.
+    static TrigramQuery anyOf(Set<String> strings) {
+        TrigramQuery query = NONE;
+        for (String s : strings) {
+            if (s.length() < GRAM_SIZE) return ALL;
+            Set<String> grams = new LinkedHashSet<>();
+            for (int i = 0; i + GRAM_SIZE <= s.length(); i++) {
+                grams.add(s.substring(i, i + GRAM_SIZE));
+            }
+            query = or(query, new TrigramQuery(Op.AND, grams, Collections.emptyList()));
+        }
+        return query;
+    }
+
+    static TrigramQuery and(TrigramQuery a, TrigramQuery b) {
+        if (a.op == Op.ALL || b.op == Op.NONE) return b;
+        if (b.op == Op.ALL || a.op == Op.NONE) return a;
+        return combine(Op.AND, a, b);
+    }
+
+    static TrigramQuery or(TrigramQuery a, TrigramQuery b) {
+        if (a.op == Op.NONE || b.op == Op.ALL) return b;
+        if (b.op == Op.NONE || a.op == Op.ALL) return a;
+        return combine(Op.OR, a, b);
+    }
+
+    // Flattens operands that already use the same operator; a single trigram fits either one
+    private static TrigramQuery combine(Op op, TrigramQuery a, TrigramQuery b) {
+        Set<String> grams = new LinkedHashSet<>();
+        List<TrigramQuery> subs = new ArrayList<>();
+        for (TrigramQuery operand : new TrigramQuery[]{a, b}) {
+            if (operand.op == op || (operand.subs.isEmpty() && operand.trigrams.size() == 1)) {
+                grams.addAll(operand.trigrams);
+                subs.addAll(operand.subs);
+            } else {
+                subs.add(operand);
+            }
+        }
+        return new TrigramQuery(op, grams, subs);
+    }
+
+    // Sorted doc ids satisfying the query, or null when every doc does
+    int[] evaluate(Function<String, int[]> postings) {
+        switch (op) {
+            case ALL:
+                return null;
+            case NONE:
+                return new int[0];
+            case AND: {
+                // Shortest postings first keeps the intermediate results small
+                List<int[]> lists = new ArrayList<>();
+                for (String gram : trigrams) {
+                    int[] docs = postings.apply(gram);
+                    if (docs == null) return new int[0];
+                    lists.add(docs);
+                }
+                lists.sort(Comparator.comparingInt(docs -> docs.length));
+
+                int[] result = null;
+                for (int[] docs : lists) {
+                    result = result == null ? docs : intersect(result, docs);
+                    if (result.length == 0) return result;
+                }
+                for (TrigramQuery sub : subs) {
+                    int[] docs = sub.evaluate(postings);
+                    if (docs == null) continue;
+                    result = result == null ? docs : intersect(result, docs);
+                    if (result.length == 0) return result;
+                }
+                return result;
+            }
+            default: {
+                int[] result = new int[0];
+                for (String gram : trigrams) {
+                    int[] docs = postings.apply(gram);
+                    if (docs != null) result = union(result, docs);
+                }
+                for (TrigramQuery sub : subs) {
+                    int[] docs = sub.evaluate(postings);
+                    if (docs == null) return null;
+                    result = union(result, docs);
+                }
+                return result;
+            }
+        }
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) i++;
+            else if (a[i] > b[j]) j++;
+            else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private static int[] union(int[] a, int[] b) {
+        int[] out = new int[a.length + b.length];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length || j < b.length) {
+            if (j == b.length || (i < a.length && a[i] < b[j])) out[n++] = a[i++];
+            else if (i == a.length || b[j] < a[i]) out[n++] = b[j++];
+            else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    @Override
+    public String toString() {
+        if (op == Op.ALL || op == Op.NONE) return op.name();
+        List<String> parts = new ArrayList<>();
+        trigrams.forEach(gram -> parts.add('"' + gram + '"'));
+        subs.forEach(sub -> parts.add("(" + sub + ")"));
+        return String.join(op == Op.AND ? " AND " : " OR ", parts);
+    }
+}
@@ -5,21 +5,37 @@ import com.searchengine.core.crawler.*;
 import com.searchengine.core.spell.SpellChecker;
 import com.searchengine.core.completion.WordCompletion;
 import com.searchengine.core.frequency.FrequencyAnalyzer;
+import com.searchengine.core.frequency.TrendingSearch;
 import com.searchengine.core.ranking.PageRanker;
+import com.searchengine.core.indexing.FacetCounts;
+import com.searchengine.core.indexing.FilterIndex;
 import com.searchengine.core.indexing.InvertedIndex;
+import com.searchengine.core.indexing.ProductColumns;
+import com.searchengine.core.indexing.RangeQuery;
+import com.searchengine.core.indexing.SearchResultItem;
+import com.searchengine.core.indexing.StoredFields;
+import com.searchengine.core.patterns.PatternIndex;
+import com.searchengine.core.patterns.PatternFinder;
 import com.searchengine.core.patterns.PatternMatcher;
+import com.searchengine.core.snapshot.SnapshotFile;
 import com.searchengine.model.Product;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.*;
 
 public class SearchEngine {
+    private static final int RANKED_PAGE_SIZE = 20;
+
     private final SpellChecker spellChecker;
     private final WordCompletion wordCompletion;
     private final FrequencyAnalyzer frequencyAnalyzer;
     private final PageRanker pageRanker;
     private final InvertedIndex invertedIndex;
     private final PatternMatcher patternMatcher;
-    private final List<Product> products;
+    private volatile List<Product> products;
+    private volatile PatternFinder patternFinder; // Shares the index's PatternIndex for products
     private final ExecutorService executorService;
 
     public SearchEngine() {
@@ -35,7 +51,8 @@ public class SearchEngine {
         this.pageRanker = new PageRanker(frequencyAnalyzer);
         this.invertedIndex = new InvertedIndex();
         this.patternMatcher = new PatternMatcher();
-        this.products = new CopyOnWriteArrayList<>();
+        this.products = Collections.emptyList();
+        this.patternFinder = new PatternFinder(products, invertedIndex.getPatternIndex());
         this.executorService = Executors.newFixedThreadPool(4);
     }
 
@@ -69,6 +86,11 @@ public class SearchEngine {
     }
 
     public SearchResult search(String query) {
+        return search(query, false);
+    }
+
+    // Facet counts are gathered in the same pass that scores the matching docs
+    public SearchResult search(String query, boolean withFacets) {
         SearchResult result = new SearchResult();
 
         // Check spelling
@@ -77,16 +99,19 @@ public class SearchEngine {
         }
 
         // Get word completions
-        result.setCompletions(wordCompletion.getSuggestions(query));
+        result.setCompletions(wordCompletion.getSuggestions(query, frequencyAnalyzer::getTrendScore));
 
-        var indexResults = invertedIndex.search(query);
+        FacetCounts facets = withFacets ? newFacetCounts() : null;
+        var indexResults = invertedIndex.search(query, facets);
         result.setIndexResults(indexResults.getItems());
+        if (facets != null) {
+            result.setFacetCounts(facets.toMap());
+        }
 
-        // Apply enhanced page ranking
+        // Apply enhanced page ranking to the first page of hits; only those products are hydrated
+        List<SearchResultItem> hits = indexResults.getItems();
         var rankedResults = pageRanker.rankProducts(
-                indexResults.getItems().stream()
-                        .map(item -> item.getProduct())
-                        .toList(),
+                getProducts(hits.subList(0, Math.min(hits.size(), RANKED_PAGE_SIZE))),
                 query
         );
         result.setRankedResults(rankedResults);
@@ -97,19 +122,149 @@ public class SearchEngine {
         return result;
     }
 
+    // Runs the searches trending over the last hour in the background and hydrates their first
+    // page, so the index postings and stored fields they touch are warm before users ask again
+    public CompletableFuture<Void> warmUp(int limit) {
+        List<TrendingSearch> trending = frequencyAnalyzer.getTrendingSearches(Duration.ofHours(1), limit);
+        return CompletableFuture.runAsync(() -> {
+            for (TrendingSearch search : trending) {
+                try {
+                    List<SearchResultItem> hits = invertedIndex.search(search.getTerm(), null).getItems();
+                    getProducts(hits.subList(0, Math.min(hits.size(), RANKED_PAGE_SIZE))).forEach(Product::getName);
+                } catch (Exception e) {
+                    System.err.println("Error warming search '" + search.getTerm() + "': " + e.getMessage());
+                }
+            }
+        }, executorService);
+    }
+
+    // Conjunctive substring search over the indexed catalog, best matches first.
+    // Terms such as power>=300, channels>=5.1 or price<800 become range filters.
+    public List<Product> findProducts(String query) {
+        return findProducts(query, null);
+    }
+
+    // As findProducts, counting facets of the hits into facets (from newFacetCounts) when not null
+    public List<Product> findProducts(String query, FacetCounts facets) {
+        return findProducts(query, null, facets);
+    }
+
+    // Faceted filtering through the filter index, intersected with the query matches when a query is given
+    public List<Product> filterProducts(String query, String company, double minPrice, double maxPrice,
+                                        Set<String> features) {
+        BitSet matches = invertedIndex.getFilterIndex().match(company, minPrice, maxPrice, features);
+        return findProducts(query == null ? "" : query, matches, null);
+    }
+
+    private List<Product> findProducts(String query, BitSet filter, FacetCounts facets) {
+        RangeQuery rangeQuery = RangeQuery.parse(query);
+        if (rangeQuery.hasConditions()) {
+            BitSet ranges = invertedIndex.getNumericIndex().match(rangeQuery);
+            if (filter != null) ranges.and(filter);
+            filter = ranges;
+        }
+
+        if (rangeQuery.getText().isEmpty()) {
+            return invertedIndex.getProducts(filter, facets);
+        }
+        return invertedIndex.getProducts(invertedIndex.searchSubstring(rangeQuery.getText(), filter, facets).getItems());
+    }
+
+    // Hydrates the products of a page of hits, e.g. result.getIndexResults().subList(20, 40)
+    public List<Product> getProducts(List<SearchResultItem> hits) {
+        return invertedIndex.getProducts(hits);
+    }
+
+    // Analysis lookups: products containing each term, narrowed down by the n-gram postings
+    public Map<String, List<Product>> getProductsForTerms(Collection<String> terms) {
+        return invertedIndex.getProductsForTerms(terms);
+    }
+
+    public FacetCounts newFacetCounts() {
+        return invertedIndex.getFacetIndex().newCounts();
+    }
+
+    // Company, type, technology and connectivity counts over a set of doc ids (null for all)
+    public FacetCounts countFacets(BitSet docIds) {
+        return invertedIndex.getFacetIndex().count(docIds);
+    }
+
     public void addProducts(List<Product> newProducts) {
-        products.addAll(newProducts);
-        initialize();
+        if (products.isEmpty() && newProducts instanceof StoredFields) {
+            // Keep an off-heap catalog as its lazy view instead of copying it onto the heap
+            products = newProducts;
+        } else {
+            List<Product> all = new ArrayList<>(products);
+            all.addAll(newProducts);
+            products = Collections.unmodifiableList(all);
+        }
+
+        // Word frequencies are updated with just the new products; the rest is rebuilt
+        CompletableFuture.allOf(
+                CompletableFuture.runAsync(this::initializeSpellChecker),
+                CompletableFuture.runAsync(this::initializeWordCompletion),
+                CompletableFuture.runAsync(this::initializeInvertedIndex),
+                CompletableFuture.runAsync(() -> frequencyAnalyzer.addProducts(newProducts))
+        ).join();
+        patternFinder = new PatternFinder(products, getPatternIndex());
+    }
+
+    // Writes the catalog and every derived structure so the next start can skip analysis.
+    // source is the catalog file the snapshot was built from; a newer source invalidates it.
+    public void saveSnapshot(Path snapshot, Path source) throws IOException {
+        SnapshotFile.write(snapshot, source, products, List.of(
+                spellChecker::writeSnapshot,
+                wordCompletion::writeSnapshot,
+                invertedIndex::writeSnapshot,
+                frequencyAnalyzer::writeSnapshot));
+    }
+
+    // Restores the engine from a snapshot instead of re-analyzing; returns the restored catalog.
+    // Throws when the snapshot is missing, stale, from another schema or fails its checksum.
+    public List<Product> loadSnapshot(Path snapshot, Path source) throws IOException {
+        long start = System.currentTimeMillis();
+        SnapshotFile file = SnapshotFile.open(snapshot, source);
+        if (file.getSectionCount() != 4) {
+            throw new IOException("Snapshot has " + file.getSectionCount() + " sections, expected 4");
+        }
+
+        try {
+            CompletableFuture.allOf(
+                    CompletableFuture.runAsync(() -> spellChecker.readSnapshot(file.section(0))),
+                    CompletableFuture.runAsync(() -> wordCompletion.readSnapshot(file.section(1))),
+                    CompletableFuture.runAsync(() -> invertedIndex.readSnapshot(file.section(2))),
+                    CompletableFuture.runAsync(() -> frequencyAnalyzer.readSnapshot(file.section(3)))
+            ).join();
+        } catch (CompletionException e) {
+            throw new IOException("Corrupt snapshot: " + e.getCause(), e.getCause());
+        }
+
+        products = Collections.unmodifiableList(file.getProducts());
+        patternFinder = new PatternFinder(products, getPatternIndex());
+        System.out.println("Restored " + products.size() + " products from " + snapshot +
+                " in " + (System.currentTimeMillis() - start) + " ms");
+        return products;
+    }
+
+    // Restores search counts and trends from the search log and keeps logging to it
+    public void openSearchLog(Path directory) throws IOException {
+        frequencyAnalyzer.openSearchLog(directory);
     }
 
     // Getters for components
-    public List<Product> getProducts() { return Collections.unmodifiableList(products); }
+    // The same unmodifiable list until the catalog changes, so callers can cache on its identity
+    public List<Product> getProducts() { return products; }
     public SpellChecker getSpellChecker() { return spellChecker; }
     public WordCompletion getWordCompletion() { return wordCompletion; }
     public FrequencyAnalyzer getFrequencyAnalyzer() { return frequencyAnalyzer; }
     public PatternMatcher getPatternMatcher() { return patternMatcher; }
+    public PatternFinder getPatternFinder() { return patternFinder; }
+    public FilterIndex getFilterIndex() { return invertedIndex.getFilterIndex(); }
+    public ProductColumns getColumns() { return invertedIndex.getColumns(); }
+    public PatternIndex getPatternIndex() { return invertedIndex.getPatternIndex(); }
 
     public void shutdown() {
+        frequencyAnalyzer.shutdown();
         executorService.shutdown();
         try {
             if (!executorService.awaitTermination(60, TimeUnit.SECONDS)) {
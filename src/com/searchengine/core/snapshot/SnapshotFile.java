@@ -0,0 +1,215 @@
+package com.searchengine.core.snapshot;
+
+import com.searchengine.model.Product;
+import com.searchengine.model.ProductDictionaries;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+// Binary snapshot of the catalog plus the structures derived from it.
+// Layout: fixed header, then the payload: catalog section, component sections, section table.
+public class SnapshotFile {
+    public static final String DEFAULT_SNAPSHOT_PATH = "ACC-Project/audio_products.snapshot";
+
+    private static final int MAGIC = 0x41434353; // "ACCS"
+    private static final int SCHEMA_VERSION = 3;
+    private static final int HEADER_SIZE = 40;    // magic, version, source size, source time, payload length, crc
+
+    public interface Section {
+        void write(SnapshotWriter out) throws IOException;
+    }
+
+    private final List<Product> products;
+    private final List<ByteBuffer> sections;
+
+    private SnapshotFile(List<Product> products, List<ByteBuffer> sections) {
+        this.products = products;
+        this.sections = sections;
+    }
+
+    public List<Product> getProducts() {
+        return products;
+    }
+
+    public int getSectionCount() {
+        return sections.size();
+    }
+
+    // Reader over one component section, in the order the sections were written
+    public SnapshotReader section(int index) {
+        return new SnapshotReader(sections.get(index).duplicate(), products);
+    }
+
+    // Writes to a temp file first so a crash never leaves a half-written snapshot behind
+    public static void write(Path path, Path source, List<Product> products, List<Section> sections)
+            throws IOException {
+        long start = System.currentTimeMillis();
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(HEADER_SIZE)); // Filled in once the payload is known
+
+            CRC32 crc = new CRC32();
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new CheckedOutputStream(Channels.newOutputStream(channel), crc), 1 << 16));
+            SnapshotWriter writer = new SnapshotWriter(out, products);
+
+            writeProducts(writer, products);
+            int[] offsets = new int[sections.size() + 1];
+            for (int i = 0; i < sections.size(); i++) {
+                offsets[i] = writer.size();
+                sections.get(i).write(writer);
+            }
+            offsets[sections.size()] = writer.size();
+
+            int tableOffset = writer.size();
+            writer.writeIntArray(offsets);
+            writer.writeInt(tableOffset);
+            out.flush();
+
+            // DataOutputStream.size() saturates at 2 GB, which is also the limit of a single mapping
+            if (writer.size() == Integer.MAX_VALUE) {
+                throw new IOException("Snapshot exceeds 2 GB");
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC);
+            header.putInt(SCHEMA_VERSION);
+            header.putLong(sourceSize(source));
+            header.putLong(sourceModified(source));
+            header.putLong(writer.size());
+            header.putLong(crc.getValue());
+            header.flip();
+            channel.write(header, 0);
+            channel.force(true);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        System.out.println("Wrote snapshot of " + products.size() + " products to " + path +
+                " in " + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    // Maps the snapshot and validates it against the schema, its checksum and the source catalog
+    public static SnapshotFile open(Path path, Path source) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) throw new IOException("Snapshot is truncated");
+            if (size > Integer.MAX_VALUE) throw new IOException("Snapshot exceeds 2 GB");
+
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            if (buffer.getInt() != MAGIC) throw new IOException("Not a catalog snapshot");
+            int version = buffer.getInt();
+            if (version != SCHEMA_VERSION) {
+                throw new IOException("Snapshot schema " + version + " does not match " + SCHEMA_VERSION);
+            }
+            if (buffer.getLong() != sourceSize(source) || buffer.getLong() != sourceModified(source)) {
+                throw new IOException("Snapshot is older than " + source);
+            }
+            long payloadLength = buffer.getLong();
+            long expectedCrc = buffer.getLong();
+            if (payloadLength != size - HEADER_SIZE) throw new IOException("Snapshot is truncated");
+
+            ByteBuffer payload = buffer.slice(HEADER_SIZE, (int) payloadLength);
+            CRC32 crc = new CRC32();
+            crc.update(payload.duplicate());
+            if (crc.getValue() != expectedCrc) throw new IOException("Snapshot checksum mismatch");
+
+            int tableOffset = payload.getInt((int) payloadLength - Integer.BYTES);
+            SnapshotReader table = new SnapshotReader(payload.slice(tableOffset, (int) payloadLength - tableOffset),
+                    Collections.emptyList());
+            int[] offsets = table.readIntArray();
+
+            List<Product> products = readProducts(new SnapshotReader(payload.duplicate(), Collections.emptyList()));
+            List<ByteBuffer> sections = new ArrayList<>();
+            for (int i = 0; i + 1 < offsets.length; i++) {
+                sections.add(payload.slice(offsets[i], offsets[i + 1] - offsets[i]));
+            }
+            return new SnapshotFile(products, sections);
+        }
+    }
+
+    private static void writeProducts(SnapshotWriter out, List<Product> products) throws IOException {
+        out.writeInt(products.size());
+        for (Product product : products) {
+            out.writeString(product.getProductId());
+            out.writeString(product.getName());
+            out.writeString(product.getUrl());
+            out.writeDouble(product.getPrice());
+            out.writeString(product.getDescription());
+            out.writeString(product.getCategory());
+            out.writeBoolean(product.isInStock());
+            out.writeString(product.getCurrency());
+            out.writeDouble(product.getRating());
+            out.writeInt(product.getReviewCount());
+            out.writeLong(product.getLastUpdated());
+            out.writeStrings(product.getFeatures());
+            out.writeStrings(product.getImages());
+            writeMap(out, product.getSpecifications());
+            writeMap(out, product.getVariants());
+        }
+    }
+
+    private static List<Product> readProducts(SnapshotReader in) {
+        int count = in.readInt();
+        List<Product> products = new ArrayList<>(count);
+        ProductDictionaries dictionaries = new ProductDictionaries();
+        for (int i = 0; i < count; i++) {
+            Product product = new Product(dictionaries);
+            product.setProductId(in.readString());
+            product.setName(in.readString());
+            product.setUrl(in.readString());
+            product.setPrice(in.readDouble());
+            product.setDescription(in.readString());
+            product.setCategory(in.readString());
+            product.setInStock(in.readBoolean());
+            product.setCurrency(in.readString());
+            product.setRating(in.readDouble());
+            product.setReviewCount(in.readInt());
+            product.setLastUpdated(in.readLong());
+            in.readStrings().forEach(product::addFeature);
+            in.readStrings().forEach(product::addImage);
+            readMap(in).forEach(product::addSpecification);
+            readMap(in).forEach(product::addVariant);
+            products.add(product);
+        }
+        return products;
+    }
+
+    private static void writeMap(SnapshotWriter out, Map<String, String> map) throws IOException {
+        out.writeInt(map.size());
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            out.writeString(entry.getKey());
+            out.writeString(entry.getValue());
+        }
+    }
+
+    private static Map<String, String> readMap(SnapshotReader in) {
+        int count = in.readInt();
+        Map<String, String> map = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            map.put(in.readString(), in.readString());
+        }
+        return map;
+    }
+
+    private static long sourceSize(Path source) throws IOException {
+        return source != null && Files.exists(source) ? Files.size(source) : -1;
+    }
+
+    private static long sourceModified(Path source) throws IOException {
+        return source != null && Files.exists(source) ? Files.getLastModifiedTime(source).toMillis() : -1;
+    }
+}
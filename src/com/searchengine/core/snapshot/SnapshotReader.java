@@ -0,0 +1,58 @@
+package com.searchengine.core.snapshot;
+
+import com.searchengine.model.Product;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+// Decoder over one section of a mapped snapshot; mirrors SnapshotWriter
+public class SnapshotReader {
+    private final ByteBuffer buffer;
+    private final List<Product> products;
+
+    SnapshotReader(ByteBuffer buffer, List<Product> products) {
+        this.buffer = buffer;
+        this.products = products;
+    }
+
+    public int readInt() { return buffer.getInt(); }
+    public long readLong() { return buffer.getLong(); }
+    public double readDouble() { return buffer.getDouble(); }
+    public boolean readBoolean() { return buffer.get() != 0; }
+    public char readChar() { return buffer.getChar(); }
+
+    public String readString() {
+        int length = buffer.getInt();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public List<String> readStrings() {
+        int count = buffer.getInt();
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(readString());
+        }
+        return values;
+    }
+
+    public int[] readIntArray() {
+        int[] values = new int[buffer.getInt()];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + values.length * Integer.BYTES);
+        return values;
+    }
+
+    // Product id behind a doc id written by writeProductRef, sharing the catalog's String
+    public String readProductRef() {
+        int docId = buffer.getInt();
+        return docId < 0 ? null : products.get(docId).getProductId();
+    }
+
+    public List<Product> getProducts() {
+        return products;
+    }
+}
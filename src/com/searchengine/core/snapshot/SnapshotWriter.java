@@ -0,0 +1,62 @@
+package com.searchengine.core.snapshot;
+
+import com.searchengine.model.Product;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+// Binary encoder handed to each component; products are referenced by doc id instead of id strings
+public class SnapshotWriter {
+    private final DataOutputStream out;
+    private final Map<String, Integer> docIds;
+
+    SnapshotWriter(DataOutputStream out, List<Product> products) {
+        this.out = out;
+        this.docIds = new HashMap<>();
+        for (int docId = 0; docId < products.size(); docId++) {
+            docIds.put(products.get(docId).getProductId(), docId);
+        }
+    }
+
+    public void writeInt(int value) throws IOException { out.writeInt(value); }
+    public void writeLong(long value) throws IOException { out.writeLong(value); }
+    public void writeDouble(double value) throws IOException { out.writeDouble(value); }
+    public void writeBoolean(boolean value) throws IOException { out.writeBoolean(value); }
+    public void writeChar(char value) throws IOException { out.writeChar(value); }
+
+    // Length-prefixed UTF-8, -1 for null
+    public void writeString(String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    public void writeStrings(Collection<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            writeString(value);
+        }
+    }
+
+    public void writeIntArray(int[] values) throws IOException {
+        out.writeInt(values.length);
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    // Doc id of the product with this id, -1 when it is not in the catalog
+    public void writeProductRef(String productId) throws IOException {
+        Integer docId = docIds.get(productId);
+        out.writeInt(docId == null ? -1 : docId);
+    }
+
+    int size() {
+        return out.size();
+    }
+}
@@ -1,6 +1,9 @@
 package com.searchengine.core.spell;
 
+import com.searchengine.core.snapshot.SnapshotReader;
+import com.searchengine.core.snapshot.SnapshotWriter;
 import com.searchengine.model.Product;
+import java.io.IOException;
 import java.util.*;
 
 public class SpellChecker {
@@ -67,6 +70,21 @@ public class SpellChecker {
         }
     }
 
+    // Only the vocabulary is stored; the length buckets are rebuilt from it
+    public void writeSnapshot(SnapshotWriter out) throws IOException {
+        out.writeStrings(vocabulary);
+    }
+
+    public void readSnapshot(SnapshotReader in) {
+        vocabulary.clear();
+        wordsByLength.clear();
+        for (String word : in.readStrings()) {
+            vocabulary.add(word);
+            wordsByLength.computeIfAbsent(word.length(), k -> new HashSet<>()).add(word);
+        }
+        System.out.println("Vocabulary restored with " + vocabulary.size() + " words");
+    }
+
     public boolean isWordValid(String word) {
         if (word == null || word.isEmpty()) return false;
         return vocabulary.contains(word.toLowerCase());
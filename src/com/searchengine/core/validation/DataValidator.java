@@ -2,62 +2,116 @@ package com.searchengine.core.validation;
 
 import com.searchengine.model.Product;
 import java.util.*;
-import java.util.regex.Pattern;
+import java.util.stream.IntStream;
 
 public class DataValidator {
-    private final Map<String, Pattern> patterns;
+    // Error codes, one bit each, combined per product by validate and validateAll; 0 means it passed
+    public static final int NAME_REQUIRED = 1;
+    public static final int INVALID_NAME = 1 << 1;
+    public static final int INVALID_PRICE = 1 << 2;
+    public static final int INVALID_PRODUCT_ID = 1 << 3;
+    public static final int INVALID_URL = 1 << 4;
+    public static final int INVALID_FEATURE = 1 << 5; // Only a warning
 
     public DataValidator() {
-        this.patterns = ValidationPatterns.getDefaultPatterns();
     }
 
+    // Messages are only built for products that fail a check
     public ValidationResult validateProduct(Product product) {
         ValidationResult result = new ValidationResult();
+        int codes = validate(product);
+        if (codes == 0) {
+            return result;
+        }
 
         // Required fields validation
-        if (product.getName() == null || product.getName().isEmpty()) {
+        if ((codes & NAME_REQUIRED) != 0) {
             result.addError("Name is required");
-        } else if (!patterns.get("name").matcher(product.getName()).matches()) {
+        } else if ((codes & INVALID_NAME) != 0) {
             result.addError("Invalid product name format");
         }
 
-        if (product.getPrice() <= 0) {
+        if ((codes & INVALID_PRICE) != 0) {
             result.addError("Price must be greater than 0");
         }
 
-        if (product.getProductId() == null || !patterns.get("productId")
-                .matcher(product.getProductId()).matches()) {
+        if ((codes & INVALID_PRODUCT_ID) != 0) {
             result.addError("Invalid product ID format");
         }
 
         // URL validation
-        if (product.getUrl() != null && !patterns.get("url")
-                .matcher(product.getUrl()).matches()) {
+        if ((codes & INVALID_URL) != 0) {
             result.addError("Invalid URL format");
         }
 
         // Features validation
-        for (String feature : product.getFeatures()) {
-            if (!patterns.get("feature").matcher(feature).matches()) {
-                result.addWarning("Feature format may be invalid: " + feature);
+        if ((codes & INVALID_FEATURE) != 0) {
+            for (String feature : product.getFeatures()) {
+                if (!FieldValidators.isValidFeature(feature)) {
+                    result.addWarning("Feature format may be invalid: " + feature);
+                }
             }
         }
 
         return result;
     }
 
+    // Same checks as validateProduct, as error codes and without allocating
+    public int validate(Product product) {
+        int codes = 0;
+
+        String name = product.getName();
+        if (name == null || name.isEmpty()) {
+            codes |= NAME_REQUIRED;
+        } else if (!FieldValidators.isValidName(name)) {
+            codes |= INVALID_NAME;
+        }
+
+        if (product.getPrice() <= ValidationRules.MIN_PRICE) {
+            codes |= INVALID_PRICE;
+        }
+
+        if (!isValidProductId(product.getProductId())) {
+            codes |= INVALID_PRODUCT_ID;
+        }
+
+        if (product.getUrl() != null && !FieldValidators.isValidUrl(product.getUrl())) {
+            codes |= INVALID_URL;
+        }
+
+        List<String> features = product.getFeatures();
+        for (int i = 0; i < features.size(); i++) {
+            if (!FieldValidators.isValidFeature(features.get(i))) {
+                codes |= INVALID_FEATURE;
+                break;
+            }
+        }
+
+        return codes;
+    }
+
+    // Error codes per product, in list order; checked in parallel
+    public int[] validateAll(List<Product> products) {
+        int[] codes = new int[products.size()];
+        IntStream.range(0, codes.length).parallel()
+                .forEach(docId -> codes[docId] = validate(products.get(docId)));
+        return codes;
+    }
+
+    // Whether codes include more than warnings
+    public static boolean hasErrors(int codes) {
+        return (codes & ~INVALID_FEATURE) != 0;
+    }
+
     public boolean isValidProductId(String productId) {
-        return productId != null &&
-                patterns.get("productId").matcher(productId).matches();
+        return productId != null && FieldValidators.isValidProductId(productId);
     }
 
     public boolean isValidPrice(String price) {
-        return price != null &&
-                patterns.get("price").matcher(price).matches();
+        return price != null && FieldValidators.isValidPrice(price);
     }
 
     public boolean isValidUrl(String url) {
-        return url != null &&
-                patterns.get("url").matcher(url).matches();
+        return url != null && FieldValidators.isValidUrl(url);
     }
-}
\ No newline at end of file
+}
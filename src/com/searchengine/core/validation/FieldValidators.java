@@ -0,0 +1,101 @@
+package com.searchengine.core.validation;
+
+// Product field formats checked by single left-to-right char scans that allocate nothing.
+// Each method accepts exactly the strings its regex would match in full:
+//   productId  [A-Z0-9]+-[A-Z0-9]+
+//   name       [\w\s-]{3,100}
+//   price      \$?\d+(?:\.\d{2})?
+//   url        https?://[\w.-]+(?:\.[\w.-]+)+[\w\-._~:/?#\[\]@!$&'()*+,;=]*
+//   feature    [\w\s.,()-]{3,200}
+// Length limits come from ValidationRules. Character classes are ASCII, as in the regexes.
+final class FieldValidators {
+    private static final String WORD = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789_";
+    private static final String WHITESPACE = " \t\n\u000B\f\r";
+
+    private static final long[] ID_CHARS = charSet("ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789");
+    private static final long[] NAME_CHARS = charSet(WORD + WHITESPACE + "-");
+    private static final long[] FEATURE_CHARS = charSet(WORD + WHITESPACE + ".,()-");
+    private static final long[] HOST_CHARS = charSet(WORD + ".-");
+    private static final long[] URL_CHARS = charSet(WORD + "-._~:/?#[]@!$&'()*+,;=");
+
+    private FieldValidators() {
+    }
+
+    static boolean isValidProductId(String productId) {
+        int hyphen = productId.indexOf('-');
+        if (hyphen <= 0 || hyphen == productId.length() - 1) return false;
+        for (int i = 0; i < productId.length(); i++) {
+            if (i != hyphen && !contains(ID_CHARS, productId.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    static boolean isValidName(String name) {
+        return allIn(NAME_CHARS, name, ValidationRules.MIN_NAME_LENGTH, ValidationRules.MAX_NAME_LENGTH);
+    }
+
+    static boolean isValidFeature(String feature) {
+        return allIn(FEATURE_CHARS, feature, ValidationRules.MIN_FEATURE_LENGTH, ValidationRules.MAX_FEATURE_LENGTH);
+    }
+
+    static boolean isValidPrice(String price) {
+        int length = price.length();
+        int i = length > 0 && price.charAt(0) == '$' ? 1 : 0;
+        int digitsStart = i;
+        while (i < length && isDigit(price.charAt(i))) i++;
+        if (i == digitsStart) return false;
+        if (i == length) return true;
+        // Cents: a dot and exactly two digits
+        return i + 3 == length && price.charAt(i) == '.'
+                && isDigit(price.charAt(i + 1)) && isDigit(price.charAt(i + 2));
+    }
+
+    // After the scheme every char must be a URL char. The regex's host part is a run of host
+    // chars with a dot that has a host char on both sides, so it is enough to look for such a dot
+    // in the leading run of host chars.
+    static boolean isValidUrl(String url) {
+        int i;
+        if (url.startsWith("https://")) i = 8;
+        else if (url.startsWith("http://")) i = 7;
+        else return false;
+
+        int hostStart = i;
+        int hostEnd = i;
+        while (hostEnd < url.length() && contains(HOST_CHARS, url.charAt(hostEnd))) hostEnd++;
+        boolean innerDot = false;
+        for (int dot = hostStart + 1; dot < hostEnd - 1 && !innerDot; dot++) {
+            innerDot = url.charAt(dot) == '.';
+        }
+        if (!innerDot) return false;
+
+        for (i = hostEnd; i < url.length(); i++) {
+            if (!contains(URL_CHARS, url.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    private static boolean allIn(long[] set, String text, int minLength, int maxLength) {
+        if (text.length() < minLength || text.length() > maxLength) return false;
+        for (int i = 0; i < text.length(); i++) {
+            if (!contains(set, text.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    // ASCII set as a 128-bit mask
+    private static boolean contains(long[] set, char c) {
+        return c < 128 && (set[c >>> 6] & (1L << c)) != 0;
+    }
+
+    private static long[] charSet(String chars) {
+        long[] set = new long[2];
+        for (char c : chars.toCharArray()) {
+            set[c >>> 6] |= 1L << c;
+        }
+        return set;
+    }
+}
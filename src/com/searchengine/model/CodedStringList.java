@@ -0,0 +1,62 @@
+package com.searchengine.model;
+
+import java.util.*;
+
+// List of strings kept as dictionary codes; -1 stands for null
+class CodedStringList extends AbstractList<String> implements RandomAccess {
+    private static final int[] EMPTY = new int[0];
+
+    private final StringDictionary dictionary;
+    private int[] codes;
+    private int size;
+
+    CodedStringList(StringDictionary dictionary) {
+        this.dictionary = dictionary;
+        this.codes = EMPTY;
+        this.size = 0;
+    }
+
+    @Override
+    public String get(int index) {
+        Objects.checkIndex(index, size);
+        int code = codes[index];
+        return code < 0 ? null : dictionary.get(code);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String set(int index, String value) {
+        String previous = get(index);
+        codes[index] = encode(value);
+        return previous;
+    }
+
+    @Override
+    public void add(int index, String value) {
+        Objects.checkIndex(index, size + 1);
+        if (size == codes.length) {
+            codes = Arrays.copyOf(codes, Math.max(4, size * 2));
+        }
+        System.arraycopy(codes, index, codes, index + 1, size - index);
+        codes[index] = encode(value);
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public String remove(int index) {
+        String previous = get(index);
+        System.arraycopy(codes, index + 1, codes, index, size - index - 1);
+        size--;
+        modCount++;
+        return previous;
+    }
+
+    private int encode(String value) {
+        return value == null ? -1 : dictionary.intern(value);
+    }
+}
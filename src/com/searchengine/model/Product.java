@@ -3,6 +3,10 @@ package com.searchengine.model;
 import java.util.*;
 
 public class Product {
+    // Shared by the few products built outside a catalog, so each does not carry its own
+    private static final ProductDictionaries STANDALONE = new ProductDictionaries();
+
+    private final transient ProductDictionaries dictionaries; // Not part of the product's JSON
     private String productId;
     private String name;
     private String url;
@@ -19,11 +23,18 @@ public class Product {
     private Map<String, String> variants;
     private long lastUpdated;
 
+    // Standalone product, outside any catalog
     public Product() {
-        this.features = new ArrayList<>();
-        this.specifications = new HashMap<>();
-        this.images = new ArrayList<>();
-        this.variants = new HashMap<>();
+        this(STANDALONE);
+    }
+
+    // Product of a catalog, sharing the catalog's dictionaries with its other products
+    public Product(ProductDictionaries dictionaries) {
+        this.dictionaries = dictionaries;
+        this.features = new CodedStringList(dictionaries.values);
+        this.specifications = new SpecificationMap(dictionaries.specificationKeys, dictionaries.values);
+        this.images = new ArrayList<>(0);
+        this.variants = new SpecificationMap(dictionaries.variantKeys, dictionaries.values);
         this.lastUpdated = System.currentTimeMillis();
     }
 
@@ -55,13 +66,13 @@ public class Product {
     public void addImage(String image) { this.images.add(image); }
 
     public String getCategory() { return category; }
-    public void setCategory(String category) { this.category = category; }
+    public void setCategory(String category) { this.category = dictionaries.values.canonical(category); }
 
     public boolean isInStock() { return inStock; }
     public void setInStock(boolean inStock) { this.inStock = inStock; }
 
     public String getCurrency() { return currency; }
-    public void setCurrency(String currency) { this.currency = currency; }
+    public void setCurrency(String currency) { this.currency = dictionaries.values.canonical(currency); }
 
     public double getRating() { return rating; }
     public void setRating(double rating) { this.rating = rating; }
@@ -77,6 +88,8 @@ public class Product {
     public long getLastUpdated() { return lastUpdated; }
     public void setLastUpdated(long lastUpdated) { this.lastUpdated = lastUpdated; }
 
+    public ProductDictionaries getDictionaries() { return dictionaries; }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
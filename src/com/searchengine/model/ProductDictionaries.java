@@ -0,0 +1,19 @@
+package com.searchengine.model;
+
+// Dictionaries shared by the products of one catalog: repeated values (companies, features, spec
+// values) and the spec and variant keys are stored once and referenced from every product by
+// int code. Products hold them, so they are released together with the catalog.
+public class ProductDictionaries {
+    final StringDictionary values;
+    final StringDictionary specificationKeys;
+    final StringDictionary variantKeys;
+
+    public ProductDictionaries() {
+        this.values = new StringDictionary();
+        this.specificationKeys = new StringDictionary();
+        this.variantKeys = new StringDictionary();
+    }
+
+    // Value dictionary behind categories, currencies, features and specification values
+    public StringDictionary getValues() { return values; }
+}
@@ -0,0 +1,115 @@
+package com.searchengine.model;
+
+import java.util.*;
+
+// Map view over a per-product array of value codes. The slot of a key comes from a
+// shared key schema, so "Power Output" is one slot for every product instead of a
+// HashMap entry per product. Entries iterate in schema order.
+class SpecificationMap extends AbstractMap<String, String> {
+    private static final int[] EMPTY = new int[0];
+    private static final int ABSENT = -1;
+    private static final int NULL_VALUE = -2;
+
+    private final StringDictionary keySchema;
+    private final StringDictionary values;
+    private int[] valueCodes; // [slot] -> value code, ABSENT or NULL_VALUE
+    private int size;
+
+    SpecificationMap(StringDictionary keySchema, StringDictionary values) {
+        this.keySchema = keySchema;
+        this.values = values;
+        this.valueCodes = EMPTY;
+        this.size = 0;
+    }
+
+    @Override
+    public String get(Object key) {
+        int slot = keySchema.codeOf(key);
+        return slot < 0 || slot >= valueCodes.length ? null : decode(valueCodes[slot]);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        int slot = keySchema.codeOf(key);
+        return slot >= 0 && slot < valueCodes.length && valueCodes[slot] != ABSENT;
+    }
+
+    @Override
+    public String put(String key, String value) {
+        Objects.requireNonNull(key, "specification key");
+        int slot = keySchema.intern(key);
+        if (slot >= valueCodes.length) {
+            int[] grown = Arrays.copyOf(valueCodes, Math.max(slot + 1, keySchema.size()));
+            Arrays.fill(grown, valueCodes.length, grown.length, ABSENT);
+            valueCodes = grown;
+        }
+
+        int previous = valueCodes[slot];
+        valueCodes[slot] = value == null ? NULL_VALUE : values.intern(value);
+        if (previous == ABSENT) size++;
+        return previous == ABSENT ? null : decode(previous);
+    }
+
+    @Override
+    public String remove(Object key) {
+        int slot = keySchema.codeOf(key);
+        if (slot < 0 || slot >= valueCodes.length || valueCodes[slot] == ABSENT) return null;
+        String previous = decode(valueCodes[slot]);
+        valueCodes[slot] = ABSENT;
+        size--;
+        return previous;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Set<Map.Entry<String, String>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Map.Entry<String, String>> iterator() {
+                return new Iterator<>() {
+                    private int next = advance(0);
+                    private int last = -1;
+
+                    private int advance(int slot) {
+                        while (slot < valueCodes.length && valueCodes[slot] == ABSENT) slot++;
+                        return slot;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < valueCodes.length;
+                    }
+
+                    @Override
+                    public Map.Entry<String, String> next() {
+                        if (!hasNext()) throw new NoSuchElementException();
+                        last = next;
+                        next = advance(next + 1);
+                        return new SimpleImmutableEntry<>(keySchema.get(last), decode(valueCodes[last]));
+                    }
+
+                    @Override
+                    public void remove() {
+                        if (last < 0) throw new IllegalStateException();
+                        valueCodes[last] = ABSENT;
+                        size--;
+                        last = -1;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private String decode(int code) {
+        return code == NULL_VALUE ? null : values.get(code);
+    }
+}
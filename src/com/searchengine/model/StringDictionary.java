@@ -0,0 +1,59 @@
+package com.searchengine.model;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Append-only dictionary of strings to dense int codes; each distinct value is stored once.
+// Lookups are lock-free; adding a new value takes the lock so codes stay dense.
+public class StringDictionary {
+    private final Map<String, Integer> codes;
+    private volatile String[] values;
+    private volatile int size;
+
+    public StringDictionary() {
+        this.codes = new ConcurrentHashMap<>();
+        this.values = new String[64];
+        this.size = 0;
+    }
+
+    // Code of the value, adding it when it is new
+    public int intern(String value) {
+        Integer code = codes.get(value);
+        if (code != null) return code;
+
+        synchronized (this) {
+            code = codes.get(value);
+            if (code != null) return code;
+
+            String[] current = values;
+            if (size == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+            }
+            current[size] = value;
+            values = current;
+            code = size++;
+            // Published last, so a reader that finds the code also sees the value
+            codes.put(value, code);
+            return code;
+        }
+    }
+
+    // The shared instance equal to value
+    public String canonical(String value) {
+        return value == null ? null : get(intern(value));
+    }
+
+    // Code of the value, -1 when it was never interned
+    public int codeOf(Object value) {
+        Integer code = value == null ? null : codes.get(value);
+        return code == null ? -1 : code;
+    }
+
+    public String get(int code) {
+        return values[code];
+    }
+
+    public int size() {
+        return size;
+    }
+}
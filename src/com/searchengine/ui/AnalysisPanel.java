@@ -1,29 +1,27 @@
 package com.searchengine.ui;
 
+import com.searchengine.core.catalog.Catalog;
+import com.searchengine.core.indexing.FacetIndex;
+import com.searchengine.core.indexing.FacetIndex;
+import com.searchengine.core.indexing.ProductColumns;
 import com.searchengine.core.search.SearchEngine;
 import com.searchengine.core.frequency.*;
 import com.searchengine.core.patterns.*;
 import com.searchengine.model.Product;
-import com.google.gson.Gson;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonArray;
 
 import javax.swing.*;
 import java.awt.*;
 import javax.swing.table.DefaultTableModel;
 import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.util.*;
 import java.util.List;
 
-import static java.util.stream.Collectors.counting;
-import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.joining;
 
 public class AnalysisPanel extends JPanel {
     private final SearchEngine searchEngine;
+    private final Catalog catalog;
     private final FrequencyAnalyzer frequencyAnalyzer;
-    private final PatternMatcher patternMatcher;
     private JTabbedPane tabbedPane;
     private JTable frequencyTable;
     private JTable patternTable;
@@ -33,10 +31,11 @@ public class AnalysisPanel extends JPanel {
     private Map<String, JTable> attributeTables;
     private Map<String, DefaultTableModel> attributeTableModels;
 
-    public AnalysisPanel(SearchEngine searchEngine) {
+    public AnalysisPanel(SearchEngine searchEngine, Catalog catalog) {
         this.searchEngine = searchEngine;
-        this.frequencyAnalyzer = new FrequencyAnalyzer();
-        this.patternMatcher = new PatternMatcher();
+        this.catalog = catalog;
+        // The engine already analyzed the shared catalog when it was indexed
+        this.frequencyAnalyzer = searchEngine.getFrequencyAnalyzer();
         this.attributeTables = new HashMap<>();
         this.attributeTableModels = new HashMap<>();
         initializeUI();
@@ -208,17 +207,13 @@ public class AnalysisPanel extends JPanel {
 
     private void performAnalysis() {
         try {
-            String jsonContent = new String(Files.readAllBytes(Paths.get("ACC-Project/audio_products.json")));
-
-            // Parse and analyze data
-            List<Product> products = parseJsonToProducts(jsonContent);
-            frequencyAnalyzer.analyzeProducts(products);
+            List<Product> products = catalog.getProducts();
 
             // Update all views
             updateFrequencyTable();
-            updatePatternTable(products);
-            updateStats(products);
-            analyzeAttributes(jsonContent);
+            updatePatternTable();
+            updateStats();
+            analyzeAttributes(products);
 
             JOptionPane.showMessageDialog(this,
                     "Analysis completed successfully",
@@ -237,23 +232,19 @@ public class AnalysisPanel extends JPanel {
 
     private void loadAndAnalyzeData() {
         try {
-            String jsonContent = new String(Files.readAllBytes(Paths.get("ACC-Project/audio_products.json")));
-
-            // Parse JSON and create Product objects
-            List<Product> products = parseJsonToProducts(jsonContent);
+            List<Product> products = catalog.getProducts();
 
-            // Analyze frequencies
-            frequencyAnalyzer.analyzeProducts(products);
+            // Word frequencies
             updateFrequencyTable();
 
             // Analyze patterns
-            updatePatternTable(products);
+            updatePatternTable();
 
             // Update statistics
-            updateStats(products);
+            updateStats();
 
             // Analyze attributes
-            analyzeAttributes(jsonContent);
+            analyzeAttributes(products);
 
         } catch (Exception e) {
             e.printStackTrace();
@@ -264,89 +255,33 @@ public class AnalysisPanel extends JPanel {
         }
     }
 
-    private List<Product> parseJsonToProducts(String jsonContent) {
-        List<Product> products = new ArrayList<>();
-        Gson gson = new Gson();
-        JsonObject root = gson.fromJson(jsonContent, JsonObject.class);
-        JsonObject companies = root.getAsJsonObject("company");
-
-        for (Map.Entry<String, JsonElement> company : companies.entrySet()) {
-            String companyName = company.getKey();
-            JsonObject companyData = company.getValue().getAsJsonObject();
-
-            for (JsonElement productElement : companyData.getAsJsonArray("products")) {
-                JsonObject productJson = productElement.getAsJsonObject();
-                Product product = createProductFromJson(productJson, companyName);
-                products.add(product);
-            }
-        }
-        return products;
-    }
-
-    private Product createProductFromJson(JsonObject productJson, String company) {
-        Product product = new Product();
-        product.setName(productJson.get("name").getAsString());
-        product.setPrice(productJson.get("price").getAsDouble());
-        product.setCategory(company);
-
-        // Add audio technologies as features
-        for (JsonElement tech : productJson.getAsJsonArray("audioTechnology")) {
-            product.addFeature(tech.getAsString());
-        }
-
-        // Add connectivity as features
-        for (JsonElement conn : productJson.getAsJsonArray("connectivity")) {
-            product.addFeature("Connectivity: " + conn.getAsString());
-        }
-
-        // Add specifications
-        product.addSpecification("Speaker Configuration",
-                productJson.get("speakerConfiguration").getAsString());
-        product.addSpecification("Power Output",
-                productJson.get("powerOutput").getAsString());
-        product.addSpecification("Type",
-                productJson.get("type").getAsString());
-
-        return product;
-    }
-
     private void updateFrequencyTable() {
         frequencyModel.setRowCount(0);
-        for (FrequencyResult result : frequencyAnalyzer.getTopWords(100)) {
+        List<FrequencyResult> topWords = frequencyAnalyzer.getTopWords(100);
+
+        // One batch lookup against the index postings for all words
+        Map<String, List<Product>> productsByWord = searchEngine.getProductsForTerms(
+                topWords.stream().map(FrequencyResult::getWord).toList());
+
+        for (FrequencyResult result : topWords) {
             frequencyModel.addRow(new Object[]{
                     result.getWord(),
                     result.getFrequency(),
-                    getProductsContainingWord(result.getWord())
+                    productsByWord.get(result.getWord()).stream()
+                            .map(Product::getName)
+                            .collect(joining(", "))
             });
         }
     }
 
-    private String getProductsContainingWord(String word) {
-        List<String> productNames = new ArrayList<>();
-        word = word.toLowerCase();
-
-        for (Product product : searchEngine.getProducts()) {
-            String finalWord = word;
-            String finalWord1 = word;
-            if (product.getName().toLowerCase().contains(word) ||
-                    product.getFeatures().stream()
-                            .anyMatch(f -> f.toLowerCase().contains(finalWord)) ||
-                    product.getSpecifications().values().stream()
-                            .anyMatch(s -> s.toLowerCase().contains(finalWord1))) {
-                productNames.add(product.getName());
-            }
-        }
-
-        return String.join(", ", productNames);
-    }
-
-    private void updatePatternTable(List<Product> products) {
+    // Rows come from the matches the engine extracted when it indexed the catalog
+    private void updatePatternTable() {
         patternModel.setRowCount(0);
         Map<String, Integer> patternCounts = new HashMap<>();
+        PatternIndex patterns = searchEngine.getPatternIndex();
 
-        for (Product product : products) {
-            List<PatternMatch> matches = patternMatcher.findPatterns(product);
-            for (PatternMatch match : matches) {
+        for (int docId = 0; docId < patterns.size(); docId++) {
+            for (PatternMatch match : patterns.getMatches(docId)) {
                 String key = match.getFeatureType() + "|" + match.getMatchedText();
                 patternCounts.merge(key, 1, Integer::sum);
 
@@ -360,82 +295,85 @@ public class AnalysisPanel extends JPanel {
         }
     }
 
-    private void updateStats(List<Product> products) {
+    private void updateStats() {
+        // Aggregated over the engine's columns rather than the Product objects
+        ProductColumns columns = searchEngine.getColumns();
+
         StringBuilder stats = new StringBuilder();
         stats.append("Analysis Statistics\n");
         stats.append("==================\n\n");
 
         // Product statistics
-        stats.append(String.format("Total Products: %d\n", products.size()));
+        stats.append(String.format("Total Products: %d\n", columns.getDocCount()));
 
         // Company statistics
-        Map<String, Long> companyProducts = products.stream()
-                .collect(groupingBy(Product::getCategory, counting()));
+        Map<String, Integer> companyProducts = searchEngine.countFacets(null).getCounts(FacetIndex.COMPANY);
 
         stats.append("\nProducts by Company:\n");
-        companyProducts.entrySet().stream()
-                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
-                .forEach(entry -> stats.append(String.format("- %s: %d products\n",
-                        entry.getKey(), entry.getValue())));
+        companyProducts.forEach((company, count) -> stats.append(String.format("- %s: %d products\n",
+                company, count)));
 
         // Price statistics
-        DoubleSummaryStatistics priceStats = products.stream()
-                .mapToDouble(Product::getPrice)
-                .summaryStatistics();
+        DoubleSummaryStatistics priceStats = columns.priceStatistics(null);
 
         stats.append("\nPrice Statistics:\n");
         stats.append(String.format("- Average Price: $%.2f\n", priceStats.getAverage()));
         stats.append(String.format("- Minimum Price: $%.2f\n", priceStats.getMin()));
         stats.append(String.format("- Maximum Price: $%.2f\n", priceStats.getMax()));
 
+        // Feature and validation checks, one parallel pass over the catalog
+        CatalogAnalysis quality = searchEngine.getPatternMatcher().analyzeCatalog(catalog.getProducts());
+
+        stats.append("\nData Quality:\n");
+        stats.append(String.format("- Products failing validation: %d\n", quality.getProductsWithErrors().size()));
+        stats.append(String.format("- Products with invalid name, price or URL: %d\n", quality.getInvalidProducts().size()));
+        stats.append(String.format("- Validation errors: %d\n", quality.getErrorCount()));
+        stats.append(String.format("- Validation warnings: %d\n", quality.getWarningCount()));
+        quality.getProductsByFeature().forEach((feature, products) -> stats.append(String.format("- With %s: %d products\n",
+                feature, products.size())));
+
         statsArea.setText(stats.toString());
     }
 
-    private void analyzeAttributes(String jsonContent) {
+    private void analyzeAttributes(List<Product> products) {
         try {
-            Gson gson = new Gson();
-            JsonObject root = gson.fromJson(jsonContent, JsonObject.class);
-            JsonObject companies = root.getAsJsonObject("company");
-
             // Initialize counters
             Map<String, Integer> speakerConfigs = new HashMap<>();
             Map<String, Integer> powerOutputs = new TreeMap<>();
             Map<String, Integer> audioTechs = new HashMap<>();
             Map<String, Integer> connectivityTypes = new HashMap<>();
             Map<String, Integer> productTypes = new HashMap<>();
-            int totalProducts = 0;
+            int totalProducts = products.size();
 
-            // Process all products
-            for (Map.Entry<String, JsonElement> company : companies.entrySet()) {
-                JsonArray products = company.getValue().getAsJsonObject().getAsJsonArray("products");
-                totalProducts += products.size();
+            // Process all products in one pass over the shared catalog
+            for (Product product : products) {
+                Map<String, String> specs = product.getSpecifications();
 
-                for (JsonElement productElement : products) {
-                    JsonObject product = productElement.getAsJsonObject();
-
-                    // Count speaker configurations
-                    String config = product.get("speakerConfiguration").getAsString();
+                // Count speaker configurations
+                String config = specs.get("Speaker Configuration");
+                if (config != null) {
                     speakerConfigs.merge(config, 1, Integer::sum);
+                }
 
-                    // Count power outputs (grouped in ranges)
-                    String power = product.get("powerOutput").getAsString();
-                    String powerRange = getPowerRange(power);
-                    powerOutputs.merge(powerRange, 1, Integer::sum);
-
-                    // Count audio technologies
-                    JsonArray techArray = product.getAsJsonArray("audioTechnology");
-                    for (JsonElement tech : techArray) {
-                        audioTechs.merge(tech.getAsString(), 1, Integer::sum);
-                    }
+                // Count power outputs (grouped in ranges)
+                String power = specs.get("Power Output");
+                if (power != null) {
+                    powerOutputs.merge(getPowerRange(power), 1, Integer::sum);
+                }
 
-                    // Count connectivity types
-                    JsonArray connArray = product.getAsJsonArray("connectivity");
-                    for (JsonElement conn : connArray) {
-                        connectivityTypes.merge(conn.getAsString(), 1, Integer::sum);
+                // Count audio technologies and connectivity types
+                for (String feature : product.getFeatures()) {
+                    if (feature.startsWith(FacetIndex.CONNECTIVITY_PREFIX)) {
+                        connectivityTypes.merge(feature.substring(FacetIndex.CONNECTIVITY_PREFIX.length()),
+                                1, Integer::sum);
+                    } else {
+                        audioTechs.merge(feature, 1, Integer::sum);
                     }
+                }
 
-                    // Count product types
-                    String type = product.get("type").getAsString();
+                // Count product types
+                String type = specs.get("Type");
+                if (type != null) {
                     productTypes.merge(type, 1, Integer::sum);
                 }
             }
@@ -1,11 +1,22 @@
 package com.searchengine.ui;
 
+import com.searchengine.core.catalog.Catalog;
+import com.searchengine.core.catalog.CatalogLoader;
+import com.searchengine.core.catalog.ProductStore;
+import com.searchengine.core.frequency.SearchEventLog;
 import com.searchengine.core.search.SearchEngine;
+import com.searchengine.core.snapshot.SnapshotFile;
 import javax.swing.*;
 import java.awt.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 public class MainWindow extends JFrame {
+    private static final int WARM_UP_SEARCHES = 20;
+
     private final SearchEngine searchEngine;
+    private final transient Catalog catalog;
     private JProgressBar progressBar;
     private JTabbedPane tabbedPane;
     private SearchPanel searchPanel;
@@ -14,9 +25,73 @@ public class MainWindow extends JFrame {
 
     public MainWindow() {
         searchEngine = new SearchEngine();
+
+        // Prefer the line-delimited copy when present; it loads in parallel
+        Path ndjson = Paths.get(CatalogLoader.DEFAULT_NDJSON_PATH);
+        Path source = Files.exists(ndjson) ? ndjson : Paths.get(CatalogLoader.DEFAULT_CATALOG_PATH);
+        Path snapshot = Paths.get(SnapshotFile.DEFAULT_SNAPSHOT_PATH);
+        Path store = Paths.get(ProductStore.DEFAULT_STORE_PATH);
+
+        // Index once; every panel shares the same catalog and engine
+        if (Files.exists(store)) {
+            // Products stay in the mapped store (written by ProductStore.main) and are materialized
+            // as they are read. No snapshot here: its catalog section is a heap copy of them.
+            catalog = loadCatalog(store);
+            searchEngine.addProducts(catalog.getProducts());
+        } else {
+            Catalog restored = restoreSnapshot(snapshot, source);
+            if (restored != null) {
+                catalog = restored;
+            } else {
+                catalog = loadCatalog(source);
+                searchEngine.addProducts(catalog.getProducts());
+                saveSnapshot(snapshot, source);
+            }
+        }
+        openSearchLog(Paths.get(SearchEventLog.DEFAULT_LOG_DIRECTORY));
+        // The replayed history says what is trending; run those searches before users do
+        searchEngine.warmUp(WARM_UP_SEARCHES);
+        Runtime.getRuntime().addShutdownHook(new Thread(searchEngine::shutdown));
         initializeUI();
     }
 
+    private Catalog restoreSnapshot(Path snapshot, Path source) {
+        if (!Files.exists(snapshot)) return null;
+        try {
+            return new Catalog(searchEngine.loadSnapshot(snapshot, source));
+        } catch (Exception e) {
+            System.err.println("Ignoring snapshot, rebuilding from " + source + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void saveSnapshot(Path snapshot, Path source) {
+        if (catalog.isEmpty()) return;
+        try {
+            searchEngine.saveSnapshot(snapshot, source);
+        } catch (Exception e) {
+            System.err.println("Error writing snapshot: " + e.getMessage());
+        }
+    }
+
+    private void openSearchLog(Path directory) {
+        try {
+            searchEngine.openSearchLog(directory);
+        } catch (Exception e) {
+            System.err.println("Search history will not be kept: " + e.getMessage());
+        }
+    }
+
+    private Catalog loadCatalog(Path source) {
+        try {
+            return new CatalogLoader().load(source);
+        } catch (Exception e) {
+            System.err.println("Error loading product data: " + e.getMessage());
+            e.printStackTrace();
+            return Catalog.empty();
+        }
+    }
+
     private void initializeUI() {
         setTitle("Product Search Engine");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -27,9 +102,9 @@ public class MainWindow extends JFrame {
         tabbedPane = new JTabbedPane();
 
         // Create panels
-        searchPanel = new SearchPanel(searchEngine);
+        searchPanel = new SearchPanel(searchEngine, catalog);
         crawlerPanel = new CrawlerPanel();
-        analysisPanel = new AnalysisPanel(searchEngine);
+        analysisPanel = new AnalysisPanel(searchEngine, catalog);
 
         // Add panels to tabbed pane
         tabbedPane.addTab("Search", searchPanel);
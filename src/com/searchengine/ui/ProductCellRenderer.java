@@ -0,0 +1,90 @@
+package com.searchengine.ui;
+
+import com.searchengine.model.Product;
+
+import javax.swing.*;
+import java.awt.*;
+
+// One component tree reused for every visible row of the results list
+public final class ProductCellRenderer extends JPanel implements ListCellRenderer<Product> {
+    private static final long serialVersionUID = 1L;
+    public static final int ROW_HEIGHT = 150;
+    private static final int IMAGE_SIZE = 100;
+    private static final Color BACKGROUND = new Color(248, 249, 250);
+    private static final Color SELECTED_BACKGROUND = new Color(232, 240, 254);
+
+    private final JLabel imageLabel;
+    private final JPanel infoPanel;
+    private final JLabel nameLabel;
+    private final JLabel companyLabel;
+    private final JLabel priceLabel;
+    private final JLabel typeLabel;
+    private final JLabel featuresLabel;
+
+    public ProductCellRenderer() {
+        setLayout(new BorderLayout());
+        setBorder(BorderFactory.createCompoundBorder(
+                BorderFactory.createCompoundBorder(
+                        BorderFactory.createEmptyBorder(0, 0, 15, 0), // Space between products
+                        BorderFactory.createLineBorder(new Color(200, 200, 200), 2, true)),
+                BorderFactory.createEmptyBorder(10, 10, 10, 10) // Add padding
+        ));
+
+        // Product Image
+        imageLabel = new JLabel();
+        imageLabel.setHorizontalAlignment(SwingConstants.CENTER);
+
+        // Text Information Panel
+        infoPanel = new JPanel();
+        infoPanel.setLayout(new BoxLayout(infoPanel, BoxLayout.Y_AXIS));
+        infoPanel.setBorder(BorderFactory.createEmptyBorder(5, 10, 5, 10)); // Padding inside info panel
+
+        nameLabel = new JLabel();
+        nameLabel.setFont(new Font("Arial", Font.BOLD, 18));
+        nameLabel.setForeground(new Color(52, 58, 64));
+
+        companyLabel = new JLabel();
+        companyLabel.setFont(new Font("Arial", Font.PLAIN, 14));
+        companyLabel.setForeground(new Color(108, 117, 125));
+
+        priceLabel = new JLabel();
+        priceLabel.setFont(new Font("Arial", Font.BOLD, 16));
+        priceLabel.setForeground(new Color(40, 167, 69)); // Green
+
+        typeLabel = new JLabel();
+        typeLabel.setFont(new Font("Arial", Font.PLAIN, 14));
+        typeLabel.setForeground(new Color(73, 80, 87));
+
+        featuresLabel = new JLabel();
+        featuresLabel.setFont(new Font("Arial", Font.ITALIC, 12));
+        featuresLabel.setForeground(Color.DARK_GRAY);
+
+        infoPanel.add(nameLabel);
+        infoPanel.add(Box.createVerticalStrut(5));
+        infoPanel.add(companyLabel);
+        infoPanel.add(priceLabel);
+        infoPanel.add(typeLabel);
+        infoPanel.add(Box.createVerticalStrut(5));
+        infoPanel.add(featuresLabel);
+
+        add(imageLabel, BorderLayout.WEST);
+        add(infoPanel, BorderLayout.CENTER);
+    }
+
+    @Override
+    public Component getListCellRendererComponent(JList<? extends Product> list, Product product,
+                                                  int index, boolean isSelected, boolean cellHasFocus) {
+        imageLabel.setIcon(ThumbnailCache.get(ThumbnailCache.DEFAULT_IMAGE, IMAGE_SIZE));
+        nameLabel.setText("📦 " + product.getName());
+        companyLabel.setText("🏢 Company: " + product.getCategory());
+        priceLabel.setText("💲 Price: $" + String.format("%.2f", product.getPrice()));
+        typeLabel.setText("🛠️ Type: " + product.getSpecifications().get("Type"));
+        featuresLabel.setText(product.getFeatures().isEmpty() ? ""
+                : "✔️ " + String.join("   ✔️ ", product.getFeatures()));
+
+        Color background = isSelected ? SELECTED_BACKGROUND : BACKGROUND;
+        setBackground(background);
+        infoPanel.setBackground(background);
+        return this;
+    }
+}
@@ -1,11 +1,12 @@
 package com.searchengine.ui;
 
+import com.searchengine.core.catalog.Catalog;
 import com.searchengine.core.search.SearchEngine;
 import com.searchengine.core.completion.WordCompletion;
+import com.searchengine.core.frequency.SearchTerm;
+import com.searchengine.core.indexing.FacetCounts;
+import com.searchengine.core.indexing.FacetIndex;
 import com.searchengine.model.Product;
-import com.google.gson.Gson;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonElement;
 
 import javax.swing.*;
 import javax.swing.Timer;
@@ -15,9 +16,8 @@ import javax.swing.table.TableModel;
 import javax.swing.table.TableRowSorter;
 import java.awt.*;
 import java.awt.event.*;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.text.SimpleDateFormat;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -26,7 +26,10 @@ public class SearchPanel extends JPanel {
     private final SearchEngine searchEngine;
     private final WordCompletion wordCompletion;
     private JTextField searchField;
-    private JTextArea resultArea;
+    private JPanel resultArea;
+    private JLabel resultsHeader;
+    private JList<Product> resultList;
+    private ProductListModel resultModel;
     private JList<String> suggestionsList;
     private DefaultListModel<String> suggestionsModel;
     private JWindow suggestionsWindow;
@@ -34,11 +37,16 @@ public class SearchPanel extends JPanel {
     private JLabel spellCheckLabel;
     private Timer spellCheckTimer;
     private static final int SPELL_CHECK_DELAY = 500;
+    private static final int HISTORY_SIZE = 100;
+    private static final DateTimeFormatter HISTORY_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     private JList<SearchHistoryEntry> historyList;
     private DefaultListModel<SearchHistoryEntry> historyModel;
     private Map<String, SearchHistoryEntry> searchHistory; // Changed to Map for quick lookup
     private DefaultTableModel frequencyModel;
     private JTable frequencyTable;
+    private JComboBox<String> companyCombo;
+    private transient Map<String, JCheckBox> featureCheckboxes;
+    private transient Map<String, Integer> companyCounts; // Facet counts of the last search, null when not shown
 
     private void addHistoryPanel() {
         // Create history panel
@@ -138,6 +146,15 @@ public class SearchPanel extends JPanel {
         add(historyPanel, BorderLayout.EAST);
     }
 
+    // Seeds the panel with the searches the engine restored from its search log
+    private void loadHistory() {
+        for (SearchTerm term : searchEngine.getFrequencyAnalyzer().getTopSearches(HISTORY_SIZE)) {
+            searchHistory.put(term.getTerm(), new SearchHistoryEntry(term.getTerm(), term.getCount(),
+                    HISTORY_TIME_FORMAT.format(term.getLastSearched())));
+        }
+        updateHistoryDisplay();
+    }
+
     private void clearHistory() {
         historyModel.clear();
         searchHistory.clear();
@@ -190,6 +207,12 @@ public class SearchPanel extends JPanel {
             updateLastSearchTime();
         }
 
+        public SearchHistoryEntry(String query, int frequency, String lastSearchTime) {
+            this.query = query;
+            this.frequency = frequency;
+            this.lastSearchTime = lastSearchTime;
+        }
+
         public void incrementFrequency() {
             this.frequency++;
         }
@@ -210,21 +233,20 @@ public class SearchPanel extends JPanel {
     }
 
 
-    public SearchPanel(SearchEngine searchEngine) {
+    public SearchPanel(SearchEngine searchEngine, Catalog catalog) {
         this.searchEngine = searchEngine;
-        this.wordCompletion = new WordCompletion();
-        this.products = new ArrayList<>();
+        this.wordCompletion = searchEngine.getWordCompletion();
+        this.products = catalog.getProducts();
         setLayout(new BorderLayout(5, 5));
         setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
 
         initializeUI();
-        loadProductData();
 
         // Create main content panel with search results and popular products
         JPanel contentPanel = new JPanel(new BorderLayout(10, 0));
 
         // Add search results to center
-        contentPanel.add(new JScrollPane(resultArea), BorderLayout.CENTER);
+        contentPanel.add(resultArea, BorderLayout.CENTER);
 
         // Add popular products to right
         contentPanel.add(createPopularProductsPanel(), BorderLayout.EAST);
@@ -234,6 +256,7 @@ public class SearchPanel extends JPanel {
 
         addFilterPanel();
         addHistoryPanel();
+        loadHistory();
     }
 
     private JPanel createPopularProductsPanel() {
@@ -424,10 +447,21 @@ public class SearchPanel extends JPanel {
         // Company filter
         JPanel companyPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
         companyPanel.add(new JLabel("Company:"));
-        Set<String> companies = new HashSet<>();
+        List<String> companies = new ArrayList<>();
         companies.add("All");
-        products.forEach(p -> companies.add(p.getCategory()));
-        JComboBox<String> companyCombo = new JComboBox<>(companies.toArray(new String[0]));
+        companies.addAll(searchEngine.getFilterIndex().getCompanies());
+        companyCombo = new JComboBox<>(companies.toArray(new String[0]));
+        companyCombo.setRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value,
+                                                          int index, boolean isSelected, boolean cellHasFocus) {
+                String text = (String) value;
+                if (companyCounts != null && text != null && !"All".equals(text)) {
+                    text += " (" + companyCounts.getOrDefault(text, 0) + ")";
+                }
+                return super.getListCellRendererComponent(list, text, index, isSelected, cellHasFocus);
+            }
+        });
         companyPanel.add(companyCombo);
 
         // Price range filter
@@ -444,12 +478,11 @@ public class SearchPanel extends JPanel {
         JPanel featuresPanel = new JPanel(new BorderLayout());
         featuresPanel.setBorder(BorderFactory.createTitledBorder("Features"));
 
-        // Collect all unique features
-        Set<String> allFeatures = new HashSet<>();
-        products.forEach(p -> allFeatures.addAll(p.getFeatures()));
+        // All unique features, as indexed by the filter index
+        Set<String> allFeatures = searchEngine.getFilterIndex().getFeatures();
 
         // Create checkboxes for features
-        Map<String, JCheckBox> featureCheckboxes = new HashMap<>();
+        featureCheckboxes = new HashMap<>();
         JPanel checkboxPanel = new JPanel(new GridLayout(0, 2, 5, 5));
         for (String feature : allFeatures) {
             JCheckBox checkbox = new JCheckBox(feature);
@@ -491,8 +524,9 @@ public class SearchPanel extends JPanel {
                     .map(Map.Entry::getKey)
                     .collect(Collectors.toSet());
 
-            // Apply filters
-            List<Product> filteredResults = filterProducts(
+            // Apply filters, intersected with the current query if there is one
+            List<Product> filteredResults = searchEngine.filterProducts(
+                    searchField.getText().trim(),
                     selectedCompany,
                     min,
                     max,
@@ -511,6 +545,7 @@ public class SearchPanel extends JPanel {
             maxPrice.setText("");
             featureCheckboxes.values().forEach(cb -> cb.setSelected(false));
             displayResults(products);
+            showFacetCounts(null);
         });
 
         // Create a main content panel for the filters
@@ -538,36 +573,6 @@ public class SearchPanel extends JPanel {
         add(filterPanel, BorderLayout.WEST);
     }
 
-    private List<Product> filterProducts(String company, double minPrice, double maxPrice, Set<String> selectedFeatures) {
-        return products.stream()
-                .filter(product -> {
-                    // Filter by company
-                    if (!"All".equals(company) && !product.getCategory().equals(company)) {
-                        return false;
-                    }
-
-                    // Filter by price range
-                    if (minPrice >= 0 && product.getPrice() < minPrice) {
-                        return false;
-                    }
-                    if (maxPrice < Double.MAX_VALUE && product.getPrice() > maxPrice) {
-                        return false;
-                    }
-
-                    // Filter by features
-                    if (!selectedFeatures.isEmpty()) {
-                        return product.getFeatures().stream()
-                                .anyMatch(selectedFeatures::contains);
-                    }
-
-                    return true;
-                })
-                .collect(Collectors.toList());
-    }
-
-
-
-
     private void initializeUI() {
         setLayout(new BorderLayout(5, 5));
         setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
@@ -676,15 +681,33 @@ public class SearchPanel extends JPanel {
 
         searchPanel.add(searchFieldPanel, BorderLayout.NORTH);
 
-        // Results area
-        resultArea = new JTextArea();
-        resultArea.setEditable(false);
-        resultArea.setWrapStyleWord(true);
-        resultArea.setLineWrap(true);
-        JScrollPane resultScroll = new JScrollPane(resultArea);
+        // Results area: the list only renders the rows inside the viewport
+        resultModel = new ProductListModel();
+        resultList = new JList<>(resultModel);
+        resultList.setCellRenderer(new ProductCellRenderer());
+        resultList.setFixedCellHeight(ProductCellRenderer.ROW_HEIGHT);
+        resultList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        resultList.setBackground(Color.WHITE);
+        resultList.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2 && resultList.getSelectedValue() != null) {
+                    displayProductDetails(resultList.getSelectedValue());
+                }
+            }
+        });
+
+        resultsHeader = new JLabel();
+        resultsHeader.setFont(new Font("Arial", Font.BOLD, 20));
+        resultsHeader.setBorder(BorderFactory.createEmptyBorder(0, 0, 15, 0)); // Add space below header
+
+        resultArea = new JPanel(new BorderLayout());
+        resultArea.setBackground(Color.WHITE);
+        resultArea.add(resultsHeader, BorderLayout.NORTH);
+        resultArea.add(new JScrollPane(resultList), BorderLayout.CENTER);
 
         add(searchPanel, BorderLayout.NORTH);
-        add(resultScroll, BorderLayout.CENTER);
+        add(resultArea, BorderLayout.CENTER);
     }
 
     private void updateSuggestionsAndSpellCheck() {
@@ -732,7 +755,9 @@ public class SearchPanel extends JPanel {
     }
 
     private void showSuggestions(String prefix) {
-        List<WordCompletion.Suggestion> suggestions = wordCompletion.getSuggestions(prefix);
+        // Words being searched right now come first, then catalog frequency
+        List<WordCompletion.Suggestion> suggestions = wordCompletion.getSuggestions(prefix,
+                searchEngine.getFrequencyAnalyzer()::getTrendScore);
 
         suggestionsModel.clear();
         if (!suggestions.isEmpty()) {
@@ -746,116 +771,6 @@ public class SearchPanel extends JPanel {
             suggestionsWindow.setVisible(false);
         }
     }
-    private void loadProductData() {
-        try {
-            // Read the JSON file
-            String jsonContent = new String(Files.readAllBytes(Paths.get("ACC-Project\\audio_products.json")));
-
-            // Parse JSON
-            Gson gson = new Gson();
-            JsonObject root = gson.fromJson(jsonContent, JsonObject.class);
-            JsonObject companies = root.getAsJsonObject("company");
-
-            // Process each company's products
-            for (Map.Entry<String, JsonElement> company : companies.entrySet()) {
-                String companyName = company.getKey();
-                JsonObject companyData = company.getValue().getAsJsonObject();
-
-                for (JsonElement productElement : companyData.getAsJsonArray("products")) {
-                    JsonObject productJson = productElement.getAsJsonObject();
-
-                    Product product = new Product();
-                    product.setName(productJson.get("name").getAsString());
-                    product.setPrice(productJson.get("price").getAsDouble());
-                    product.setCategory(companyName);
-
-                    // Add audio technologies as features
-                    for (JsonElement tech : productJson.getAsJsonArray("audioTechnology")) {
-                        product.addFeature(tech.getAsString());
-                    }
-
-                    // Add connectivity options as features
-                    for (JsonElement conn : productJson.getAsJsonArray("connectivity")) {
-                        product.addFeature("Connectivity: " + conn.getAsString());
-                    }
-
-                    // Add specifications
-                    product.addSpecification("Speaker Configuration",
-                            productJson.get("speakerConfiguration").getAsString());
-                    product.addSpecification("Power Output",
-                            productJson.get("powerOutput").getAsString());
-                    product.addSpecification("Type",
-                            productJson.get("type").getAsString());
-
-                    products.add(product);
-                }
-            }
-
-            // Initialize word completion
-            wordCompletion.buildTrie(products);
-
-            // Initialize spell checker with product data
-            initializeSpellChecker(products);
-
-            System.out.println("Loaded " + products.size() + " products");
-
-        } catch (Exception e) {
-            System.err.println("Error loading product data: " + e.getMessage());
-            e.printStackTrace();
-        }
-    }
-
-    private void initializeSpellChecker(List<Product> products) {
-        // Build vocabulary from product data
-        Set<String> vocabulary = new HashSet<>();
-
-        for (Product product : products) {
-            // Add words from product name
-            addWordsToVocabulary(product.getName(), vocabulary);
-
-            // Add words from features
-            for (String feature : product.getFeatures()) {
-                addWordsToVocabulary(feature, vocabulary);
-            }
-
-            // Add words from specifications
-            for (Map.Entry<String, String> spec : product.getSpecifications().entrySet()) {
-                addWordsToVocabulary(spec.getValue(), vocabulary);
-            }
-
-            // Add category
-            addWordsToVocabulary(product.getCategory(), vocabulary);
-        }
-
-        // Add common audio/technology terms
-        String[] commonTerms = {
-                "wireless", "bluetooth", "speaker", "soundbar", "subwoofer",
-                "surround", "dolby", "atmos", "bass", "treble", "audio",
-                "digital", "optical", "hdmi", "remote", "control", "power",
-                "watts", "channels", "configuration", "system"
-        };
-        Collections.addAll(vocabulary, commonTerms);
-
-        // Build the spell checker vocabulary through SearchEngine
-        searchEngine.getSpellChecker().buildVocabulary(products);
-        System.out.println("Spell checker initialized with vocabulary size: " + vocabulary.size());
-    }
-
-    private void addWordsToVocabulary(String text, Set<String> vocabulary) {
-        if (text == null) return;
-
-        // Split text into words and clean
-        String[] words = text.toLowerCase()
-                .replaceAll("[^a-z0-9\\s-]", " ")
-                .split("\\s+");
-
-        for (String word : words) {
-            if (word.length() > 2) { // Skip very short words
-                vocabulary.add(word);
-            }
-        }
-    }
-
     private void updateSuggestions() {
         String text = searchField.getText().trim();
         if (text.length() >= 2) {
@@ -876,158 +791,82 @@ public class SearchPanel extends JPanel {
         }
 
         addToHistory(query);
-        List<Product> results = searchProducts(query);
+        searchEngine.getFrequencyAnalyzer().recordSearch(query);
+        FacetCounts facets = searchEngine.newFacetCounts();
+        List<Product> results = searchEngine.findProducts(query, facets);
         displayResults(results);
+        showFacetCounts(results.isEmpty() ? null : facets);
     }
 
-    private List<Product> searchProducts(String query) {
-        String[] terms = query.toLowerCase().split("\\s+");
-
-        return products.stream()
-                .filter(product -> {
-                    String searchText = (product.getName() + " " +
-                            product.getCategory() + " " +
-                            String.join(" ", product.getFeatures()) + " " +
-                            String.join(" ", product.getSpecifications().values()))
-                            .toLowerCase();
-
-                    return Arrays.stream(terms)
-                            .allMatch(term -> searchText.contains(term));
-                })
-                .sorted((p1, p2) -> {
-                    int score1 = calculateRelevanceScore(p1, query);
-                    int score2 = calculateRelevanceScore(p2, query);
-                    return Integer.compare(score2, score1);
-                })
-                .toList();
-    }
-
-    private int calculateRelevanceScore(Product product, String query) {
-        int score = 0;
-        String[] terms = query.toLowerCase().split("\\s+");
-
-        for (String term : terms) {
-            // Name matches (highest weight)
-            if (product.getName().toLowerCase().contains(term)) score += 3;
-
-            // Category matches (medium weight)
-            if (product.getCategory().toLowerCase().contains(term)) score += 2;
-
-            // Feature matches (medium weight)
-            for (String feature : product.getFeatures()) {
-                if (feature.toLowerCase().contains(term)) score += 2;
-            }
-
-            // Specification matches (lower weight)
-            for (String spec : product.getSpecifications().values()) {
-                if (spec.toLowerCase().contains(term)) score += 1;
+    // Shows facet counts next to companies, features and product types; null clears them
+    private void showFacetCounts(FacetCounts facets) {
+        companyCounts = facets == null ? null : facets.getCounts(FacetIndex.COMPANY);
+        companyCombo.repaint();
+
+        for (Map.Entry<String, JCheckBox> entry : featureCheckboxes.entrySet()) {
+            String feature = entry.getKey();
+            if (facets == null) {
+                entry.getValue().setText(feature);
+            } else if (feature.startsWith(FacetIndex.CONNECTIVITY_PREFIX)) {
+                entry.getValue().setText(feature + " (" + facets.getCount(FacetIndex.CONNECTIVITY,
+                        feature.substring(FacetIndex.CONNECTIVITY_PREFIX.length())) + ")");
+            } else {
+                entry.getValue().setText(feature + " (" +
+                        facets.getCount(FacetIndex.AUDIO_TECHNOLOGY, feature) + ")");
             }
         }
 
-        return score;
+        if (facets != null) {
+            String types = facets.getCounts(FacetIndex.TYPE).entrySet().stream()
+                    .map(e -> e.getKey() + " (" + e.getValue() + ")")
+                    .collect(Collectors.joining(", "));
+            resultsHeader.setText("<html>" + resultsHeader.getText() +
+                    " <small>" + types + "</small></html>");
+        }
     }
 
     private void displayResults(List<Product> results) {
-        // Clear previous results
-        resultArea.removeAll();
-
-        JPanel resultsPanel = new JPanel();
-        resultsPanel.setLayout(new BoxLayout(resultsPanel, BoxLayout.Y_AXIS));
-        resultsPanel.setBackground(Color.WHITE);
-
         if (results.isEmpty()) {
-            JLabel noResultsLabel = new JLabel("No products found matching your search.");
-            noResultsLabel.setForeground(Color.RED);
-            noResultsLabel.setFont(new Font("Arial", Font.BOLD, 18));
-            noResultsLabel.setHorizontalAlignment(SwingConstants.CENTER);
-            resultsPanel.add(noResultsLabel);
+            resultsHeader.setText("No products found matching your search.");
+            resultsHeader.setForeground(Color.RED);
+            resultsHeader.setFont(new Font("Arial", Font.BOLD, 18));
+            resultsHeader.setHorizontalAlignment(SwingConstants.CENTER);
         } else {
-            JLabel resultsHeader = new JLabel("🔍 Found " + results.size() + " products:");
-            resultsHeader.setFont(new Font("Arial", Font.BOLD, 20));
+            resultsHeader.setText("🔍 Found " + results.size() + " products:");
             resultsHeader.setForeground(new Color(0, 123, 255)); // Blue color
-            resultsHeader.setAlignmentX(Component.LEFT_ALIGNMENT);
-            resultsPanel.add(resultsHeader);
-            resultsPanel.add(Box.createVerticalStrut(15)); // Add space below header
-
-            for (Product product : results) {
-                JPanel productPanel = new JPanel();
-                productPanel.setLayout(new BorderLayout());
-                productPanel.setBorder(BorderFactory.createCompoundBorder(
-                        BorderFactory.createLineBorder(new Color(200, 200, 200), 2, true),
-                        BorderFactory.createEmptyBorder(10, 10, 10, 10) // Add padding
-                ));
-                productPanel.setBackground(new Color(248, 249, 250)); // Light gray
-                productPanel.setMaximumSize(new Dimension(600, 250));
-                productPanel.setAlignmentX(Component.LEFT_ALIGNMENT);
-
-                // Product Image
-                JLabel imageLabel = new JLabel();
-                ImageIcon productImage = new ImageIcon("src/stock.jpg"); // Path to the default image
-                Image scaledImage = productImage.getImage().getScaledInstance(100, 100, Image.SCALE_SMOOTH);
-                imageLabel.setIcon(new ImageIcon(scaledImage));
-                imageLabel.setHorizontalAlignment(SwingConstants.CENTER);
-
-                // Text Information Panel
-                JPanel infoPanel = new JPanel();
-                infoPanel.setLayout(new BoxLayout(infoPanel, BoxLayout.Y_AXIS));
-                infoPanel.setBackground(new Color(248, 249, 250));
-                infoPanel.setBorder(BorderFactory.createEmptyBorder(5, 10, 5, 10)); // Padding inside info panel
-
-                // Product Name
-                JLabel nameLabel = new JLabel("📦 " + product.getName());
-                nameLabel.setFont(new Font("Arial", Font.BOLD, 18));
-                nameLabel.setForeground(new Color(52, 58, 64));
-
-                // Product Category
-                JLabel companyLabel = new JLabel("🏢 Company: " + product.getCategory());
-                companyLabel.setFont(new Font("Arial", Font.PLAIN, 14));
-                companyLabel.setForeground(new Color(108, 117, 125));
-
-                // Product Price
-                JLabel priceLabel = new JLabel("💲 Price: $" + String.format("%.2f", product.getPrice()));
-                priceLabel.setFont(new Font("Arial", Font.BOLD, 16));
-                priceLabel.setForeground(new Color(40, 167, 69)); // Green
-
-                // Product Type
-                JLabel typeLabel = new JLabel("🛠️ Type: " + product.getSpecifications().get("Type"));
-                typeLabel.setFont(new Font("Arial", Font.PLAIN, 14));
-                typeLabel.setForeground(new Color(73, 80, 87));
-
-                // Features
-                JPanel featuresPanel = new JPanel();
-                featuresPanel.setLayout(new FlowLayout(FlowLayout.LEFT));
-                featuresPanel.setBackground(new Color(248, 249, 250));
-                for (String feature : product.getFeatures()) {
-                    JLabel featureLabel = new JLabel("✔️ " + feature);
-                    featureLabel.setFont(new Font("Arial", Font.ITALIC, 12));
-                    featureLabel.setForeground(Color.DARK_GRAY);
-                    featuresPanel.add(featureLabel);
-                }
+            resultsHeader.setFont(new Font("Arial", Font.BOLD, 20));
+            resultsHeader.setHorizontalAlignment(SwingConstants.LEFT);
+        }
+
+        // Swap the backing list; no per-result components are created
+        resultModel.setProducts(results);
+        resultList.clearSelection();
+        if (!results.isEmpty()) {
+            resultList.ensureIndexIsVisible(0);
+        }
+    }
 
-                // Add elements to the info panel
-                infoPanel.add(nameLabel);
-                infoPanel.add(Box.createVerticalStrut(5));
-                infoPanel.add(companyLabel);
-                infoPanel.add(priceLabel);
-                infoPanel.add(typeLabel);
-                infoPanel.add(featuresPanel);
-
-                // Add Image and Info Panel to Product Panel
-                productPanel.add(imageLabel, BorderLayout.WEST);
-                productPanel.add(infoPanel, BorderLayout.CENTER);
-
-                // Add space between products
-                resultsPanel.add(productPanel);
-                resultsPanel.add(Box.createVerticalStrut(15));
+    // List model that wraps the result list without copying it
+    private static class ProductListModel extends AbstractListModel<Product> {
+        private static final long serialVersionUID = 1L;
+
+        private transient List<Product> products = Collections.emptyList();
+
+        public void setProducts(List<Product> products) {
+            int previousSize = this.products.size();
+            this.products = products;
+            if (previousSize > 0) {
+                fireIntervalRemoved(this, 0, previousSize - 1);
+            }
+            if (!products.isEmpty()) {
+                fireIntervalAdded(this, 0, products.size() - 1);
             }
         }
 
-        // Add results to the result area
-        resultArea.setLayout(new BorderLayout());
-        resultArea.add(new JScrollPane(resultsPanel), BorderLayout.CENTER);
+        @Override
+        public int getSize() { return products.size(); }
 
-        // Refresh the UI
-        resultArea.revalidate();
-        resultArea.repaint();
+        @Override
+        public Product getElementAt(int index) { return products.get(index); }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,33 @@
+package com.searchengine.ui;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.*;
+
+public class ThumbnailCache {
+    public static final String DEFAULT_IMAGE = "src/stock.jpg";
+    private static final int MAX_ENTRIES = 256;
+
+    // Access-ordered map evicts the least recently used thumbnail
+    private static final Map<String, ImageIcon> CACHE = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ImageIcon> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private ThumbnailCache() {
+    }
+
+    public static synchronized ImageIcon get(String path, int size) {
+        String key = path + "@" + size;
+        ImageIcon icon = CACHE.get(key);
+        if (icon == null) {
+            // Scale once; every later row reuses the same icon
+            Image source = new ImageIcon(path).getImage();
+            icon = new ImageIcon(source.getScaledInstance(size, size, Image.SCALE_SMOOTH));
+            CACHE.put(key, icon);
+        }
+        return icon;
+    }
+}